@@ -0,0 +1,15 @@
+-- V2: индексы под фильтры и сортировки GET /rest/ships и GET /rest/ships/count.
+-- V1 - это исходная схема из init.sql (таблица ship только с PRIMARY KEY).
+--
+-- Фильтры ShipServiceImpl: shipType, isUsed (равенство), prodDate, speed, crewSize, rating (диапазоны).
+-- Сортировки ShipOrder: id, speed, prodDate, rating.
+-- Индексы по (поле, id) обслуживают и диапазонный фильтр, и сортировку по полю с id в качестве второго ключа
+-- (тот же порядок использует keyset-пагинация GET /rest/ships/seek).
+
+USE cosmoport;
+
+CREATE INDEX ship_type_used_idx ON ship (shipType, isUsed, prodDate);
+CREATE INDEX ship_prod_date_idx ON ship (prodDate, id);
+CREATE INDEX ship_speed_idx ON ship (speed, id);
+CREATE INDEX ship_rating_idx ON ship (rating, id);
+CREATE INDEX ship_crew_size_idx ON ship (crewSize, id);
@@ -0,0 +1,15 @@
+-- V3: FULLTEXT-индексы с парсером ngram для поиска по частичному совпадению name и planet.
+-- LIKE '%x%' не может использовать B-tree индекс; MATCH ... AGAINST('"x"' IN BOOLEAN MODE) по ngram-индексу
+-- находит строки, содержащие все n-граммы подстроки подряд, а LIKE затем проверяет только найденные строки.
+-- Требуется MySQL 5.7.6+. Размер n-граммы задаётся переменной сервера ngram_token_size (по умолчанию 2)
+-- и должен совпадать с ship.search.ngram-token-size в cosmoport.properties.
+-- ShipSearchSupport при старте приложения сам находит эти индексы; без них поиск работает через LIKE.
+
+USE cosmoport;
+
+-- со стоп-словами ngram-парсер выбрасывает все n-граммы, содержащие стоп-слово (например, "a"),
+-- и поиск по подстроке терял бы строки - создаём индексы без стоп-слов
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+ALTER TABLE ship ADD FULLTEXT INDEX ship_name_ngram_idx (name) WITH PARSER ngram;
+ALTER TABLE ship ADD FULLTEXT INDEX ship_planet_ngram_idx (planet) WITH PARSER ngram;
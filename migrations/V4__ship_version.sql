@@ -0,0 +1,9 @@
+-- V4: номер версии корабля для оптимистической блокировки и ETag (EntityShip.version).
+-- Hibernate увеличивает version при каждом UPDATE и добавляет "AND version = ?" в WHERE:
+-- если корабль успели изменить параллельно, UPDATE не затронет ни одной строки и изменение будет отклонено (409).
+-- GET /rest/ships/{id} отдаёт id и version в заголовке ETag, POST /rest/ships/{id} принимает его в If-Match (412).
+-- У существующих кораблей версия 0.
+
+USE cosmoport;
+
+ALTER TABLE ship ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,123 @@
+package com.space.controller;
+
+/*
+ Бенчмарк сериализации страницы кораблей в JSON тем же ObjectMapper, что использует REST (WebConfig).
+ serializePage - EntityShipSerializer, serializePageByFields - прежняя сериализация по полям через рефлексию
+ (сериализатор отключён mix-in), serializePageGzip - EntityShipSerializer и сжатие gzip с уровнем level,
+ как в CompressionFilter (http.compression.level).
+ Размер ответов без сжатия и со сжатием печатает main:
+     mvn -P jmh test-compile exec:exec -Djmh.main=com.space.controller.ShipJsonBenchmark
+ */
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.space.config.WebConfig;
+import com.space.model.EntityShip;
+import com.space.service.ShipFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ShipJsonBenchmark {
+
+    @Param({"3", "100", "1000"})
+    public int pageSize;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private ObjectWriter writer;
+    private ObjectWriter fieldsWriter;
+    private List<EntityShip> page;
+
+    // отключает EntityShipSerializer: EntityShip пишется по полям, как до его появления
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private static class ByFields {
+    }
+
+    @Setup
+    public void setUp() {
+        writer = pageWriter(new WebConfig().objectMapper());
+        fieldsWriter = pageWriter(new WebConfig().objectMapper().addMixIn(EntityShip.class, ByFields.class));
+        page = page(pageSize);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePageByFields() throws IOException {
+        return fieldsWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePageGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = gzip(bytes, level)) {
+            writer.writeValue(gzip, page);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static GZIPOutputStream gzip(ByteArrayOutputStream bytes, int level) throws IOException {
+        return new GZIPOutputStream(bytes, 8192, true) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    private static ObjectWriter pageWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, EntityShip.class));
+    }
+
+    private static List<EntityShip> page(int pageSize) {
+        List<EntityShip> page = ShipFleet.generate(pageSize, 42);
+        for (int i = 0; i < page.size(); i++) {
+            page.get(i).setId((long) i + 1);
+        }
+        return page;
+    }
+
+    // Байты ответа без сжатия и в gzip с уровнями 1 и 6 для каждого размера страницы.
+    public static void main(String[] args) throws IOException {
+        ObjectWriter writer = pageWriter(new WebConfig().objectMapper());
+        System.out.printf("%10s %12s %12s %12s%n", "pageSize", "json", "gzip level 1", "gzip level 6");
+        for (int pageSize : new int[]{3, 20, 100, 1000, 10000}) {
+            byte[] json = writer.writeValueAsBytes(page(pageSize));
+            System.out.printf("%10d %12d %12d %12d%n", pageSize, json.length, gzipSize(json, 1), gzipSize(json, 6));
+        }
+    }
+
+    private static int gzipSize(byte[] json, int level) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = gzip(compressed, level)) {
+            gzip.write(json);
+        }
+        return compressed.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.space.model;
+
+/*
+ Сравнение памяти, занимаемой N кораблями в виде EntityShip и в виде ShipView (по умолчанию N = 1 000 000).
+ Размер считается JOL по графу объектов, достижимых из списка (вместе со строками, Date и обёртками чисел).
+ EntityShip собираются так же, как их собирает Hibernate из строк ResultSet: у каждого корабля свои
+ экземпляры строк и Date, а числа упаковываются через valueOf (как автоупаковка результата getLong/getInt/getDouble):
+ Double всегда новый, а Long и Integer от -128 до 127 берутся из кеша и общие для всех кораблей - так же, как после
+ чтения из БД.
+ Запуск: mvn -P jmh test-compile exec:exec -Djmh.main=com.space.model.ShipFootprint -Djmh.args=1000000
+ */
+
+import com.space.service.ShipFleet;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class ShipFootprint {
+
+    public static void main(String[] args) {
+        int count = 1_000_000;
+        if (args.length > 0 && args[args.length - 1].matches("\\d+")) {
+            count = Integer.parseInt(args[args.length - 1]);
+        }
+
+        List<EntityShip> entities = new ArrayList<>(count);
+        for (EntityShip generated : ShipFleet.generate(count, 42)) {
+            entities.add(hydrate(generated, entities.size() + 1));
+        }
+        List<ShipView> views = new ArrayList<>(count);
+        for (EntityShip entity : entities) {
+            views.add(ShipView.of(entity));
+        }
+
+        long entitiesSize = GraphLayout.parseInstance(entities).totalSize();
+        // строки name у обоих представлений одни и те же, поэтому считаем их отдельно и вычитаем
+        long namesSize = GraphLayout.parseInstance(views.stream().map(ShipView::getName).toArray()).totalSize();
+        long viewsSize = GraphLayout.parseInstance(views).totalSize();
+
+        System.out.printf("ships:                 %,d%n", count);
+        System.out.printf("EntityShip, total:     %,d bytes (%.1f bytes/ship)%n", entitiesSize, (double) entitiesSize / count);
+        System.out.printf("ShipView, total:       %,d bytes (%.1f bytes/ship)%n", viewsSize, (double) viewsSize / count);
+        System.out.printf("names (both):          %,d bytes%n", namesSize);
+        System.out.printf("EntityShip w/o names:  %.1f bytes/ship%n", (double) (entitiesSize - namesSize) / count);
+        System.out.printf("ShipView w/o names:    %.1f bytes/ship%n", (double) (viewsSize - namesSize) / count);
+    }
+
+    // Копия корабля с отдельными экземплярами строк и дат и упакованными числами, как после чтения из БД.
+    private static EntityShip hydrate(EntityShip generated, long id) {
+        EntityShip ship = new EntityShip();
+        ship.setId(Long.valueOf(id));
+        ship.setName(new String(generated.getName()));
+        ship.setPlanet(new String(generated.getPlanet()));
+        ship.setShipType(generated.getShipType());
+        ship.setProdDate(new Date(generated.getProdDate().getTime()));
+        ship.setUsed(generated.getUsed());
+        ship.setSpeed(Double.valueOf(generated.getSpeed()));
+        ship.setCrewSize(Integer.valueOf(generated.getCrewSize()));
+        ship.setRating(Double.valueOf(generated.getRating()));
+        return ship;
+    }
+}
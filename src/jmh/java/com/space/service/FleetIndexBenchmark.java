@@ -0,0 +1,117 @@
+package com.space.service;
+
+/*
+ Масштабирование проверки кандидатов FleetIndex по потокам: один и тот же индекс на rowCount кораблей
+ с ship.fleet-index.parallelism = threads (1 - без ForkJoinPool, в вызывающем потоке).
+ Фильтры подобраны так, чтобы карты отсекали мало и основная работа приходилась на точную проверку строк:
+ подстрока в name и широкий диапазон speed с границами внутри корзин.
+ Пример: -p threads=1,2,4,8 -p rowCount=1000000.
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipView;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FleetIndexBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"1000000"})
+    public int rowCount;
+
+    private FleetIndex fleetIndex;
+    private ShipFilter textFilter;
+    private ShipFilter rangeFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ship.fleet-index.enabled", "true")
+                .withProperty("ship.export.fetch-size", "1000")
+                .withProperty("ship.fleet-index.parallelism", String.valueOf(threads))
+                .withProperty("ship.fleet-index.parallel-threshold", "0")
+                .withProperty("ship.search.ngram-token-size", "2");
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fleet-index-benchmark");
+        fleetIndex = new FleetIndex(null, null, new ShipSearchSupport(dataSource, environment), environment);
+
+        List<EntityShip> fleet = ShipFleet.generate(rowCount, 42);
+        for (int i = 0; i < fleet.size(); i++) {
+            fleet.get(i).setId((long) i + 1);
+        }
+        fleetIndex.load(fleet);
+
+        textFilter = new ShipFilter();
+        textFilter.setName("a");
+
+        rangeFilter = new ShipFilter();
+        rangeFilter.setMinSpeed(0.105);
+        rangeFilter.setMaxSpeed(0.895);
+        rangeFilter.setMinRating(0.5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fleetIndex.destroy();
+    }
+
+    // страница по подстроке name: каждая строка-кандидат проверяется String.contains
+    @Benchmark
+    public Page<ShipView> findByName() {
+        return fleetIndex.find(textFilter, PageRequest.of(0, PAGE_SIZE, Sort.by("rating")));
+    }
+
+    // страница по диапазонам: отбор картами и слияние лучших страниц частей
+    @Benchmark
+    public Page<ShipView> findByRanges() {
+        return fleetIndex.find(rangeFilter, PageRequest.of(0, PAGE_SIZE, Sort.by("speed")));
+    }
+
+    // первая страница без фильтра по id: обход id с остановкой после страницы, без просмотра кандидатов
+    @Benchmark
+    public Page<ShipView> findFirstPageById() {
+        return fleetIndex.find(new ShipFilter(), PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    // страница по диапазонам в порядке id: обход id до первых PAGE_SIZE совпадений и количество по картам
+    @Benchmark
+    public Page<ShipView> findByRangesById() {
+        return fleetIndex.find(rangeFilter, PageRequest.of(0, PAGE_SIZE, Sort.by("id")));
+    }
+
+    // количество по подстроке: параллельна только проверка строк
+    @Benchmark
+    public long countByName() {
+        return fleetIndex.count(textFilter);
+    }
+}
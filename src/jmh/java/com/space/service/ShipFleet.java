@@ -0,0 +1,47 @@
+package com.space.service;
+
+/*
+ Генератор кораблей для бенчмарков: корректные по правилам createShip корабли со случайными,
+ но воспроизводимыми (фиксированный seed) значениями полей и уже рассчитанным рейтингом
+ (ShipRating с параметрами по умолчанию - тот же расчёт, что ShipServiceImpl.computeRating).
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipType;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+public final class ShipFleet {
+
+    private static final String[] PLANETS = {"Earth", "Mars", "Venus", "Jupiter", "Saturn", "Uranus", "Neptune", "Pluto"};
+
+    private ShipFleet() {
+    }
+
+    public static List<EntityShip> generate(int count, long seed) {
+        Random random = new Random(seed);
+        ShipRating shipRating = new ShipRating(TimeZone.getDefault());
+        ShipType[] types = ShipType.values();
+        List<EntityShip> ships = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            EntityShip ship = new EntityShip();
+            ship.setName("Ship-" + Integer.toString(random.nextInt(1_000_000), 36));
+            ship.setPlanet(PLANETS[random.nextInt(PLANETS.length)]);
+            ship.setShipType(types[random.nextInt(types.length)]);
+            Calendar calendar = new GregorianCalendar(2800 + random.nextInt(220), random.nextInt(12), 1 + random.nextInt(28));
+            ship.setProdDate(calendar.getTime());
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed((1 + random.nextInt(99)) / 100.0);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(shipRating.rating(ship.getSpeed(), ship.getUsed(), shipRating.yearOf(ship.getProdDate().getTime())));
+            ships.add(ship);
+        }
+        return ships;
+    }
+}
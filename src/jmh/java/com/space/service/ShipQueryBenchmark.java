@@ -0,0 +1,171 @@
+package com.space.service;
+
+/*
+ Бенчмарки запросов списка и количества кораблей через весь сервисный слой (Spring Data JPA + Hibernate + HikariCP)
+ на встроенной H2 (профиль dev), заполненной rowCount случайными кораблями.
+ Кроме GET /rest/ships и GET /rest/ships/count сравниваются:
+  - COUNT в БД и прежний способ подсчёта findAll(spec).size();
+  - страница через OFFSET и та же страница через курсор (keyset), как в GET /rest/ships/seek, на разной глубине
+    выборки (параметр depth: первая страница, 10%, 50% и последняя);
+  - тот же запрос страницы и количества через колоночный индекс в памяти (FleetIndex).
+ Размер таблицы задаётся параметром: -p rowCount=1000000.
+ */
+
+import com.space.config.AppConfig;
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipView;
+import com.space.repository.InterfaceRepository;
+import com.space.repository.ShipBatchWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShipQueryBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000"})
+    public int rowCount;
+
+    private AnnotationConfigApplicationContext context;
+    private ShipService shipService;
+    private ShipQueryCache shipQueryCache;
+    private InterfaceRepository interfaceRepository;
+    private FleetIndex fleetIndex;
+
+    private ShipFilter filter;
+    private Specification<EntityShip> specification;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("dev");
+        context.register(AppConfig.class);
+        context.refresh();
+
+        shipService = context.getBean(ShipService.class);
+        shipQueryCache = context.getBean(ShipQueryCache.class);
+        interfaceRepository = context.getBean(InterfaceRepository.class);
+
+        List<EntityShip> fleet = ShipFleet.generate(rowCount, 42);
+        context.getBean(ShipBatchWriter.class).insertAll(fleet);
+
+        // индекс выключен в настройках, поэтому загружаем его явно - сервис по-прежнему ходит в БД
+        fleetIndex = context.getBean(FleetIndex.class);
+        fleetIndex.reload();
+
+        // типичный запрос грида: одно равенство и один диапазон
+        filter = new ShipFilter();
+        filter.setIsUsed(false);
+        filter.setMinSpeed(0.3);
+        specification = shipService.selectByFilter(filter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // GET /rest/ships без кеша результатов: SELECT страницы + SELECT COUNT
+    @Benchmark
+    public Page<EntityShip> findAll() {
+        return shipService.getShipsList(specification, PageRequest.of(0, PAGE_SIZE, Sort.by("rating")));
+    }
+
+    // GET /rest/ships через кеш результатов: повторный запрос той же страницы
+    @Benchmark
+    public Page<ShipView> findAllCached() {
+        return shipService.getShipsList(filter, PageRequest.of(0, PAGE_SIZE, Sort.by("rating")));
+    }
+
+    // GET /rest/ships/count без кеша результатов: SELECT COUNT в БД
+    @Benchmark
+    public Integer getCount() {
+        return shipService.getShipsCount(specification);
+    }
+
+    // прежняя реализация GET /rest/ships/count: загрузка всех подходящих кораблей ради size()
+    @Benchmark
+    public int getCountByFindAll() {
+        return interfaceRepository.findAll(specification).size();
+    }
+
+    // GET /rest/ships через колоночный индекс в памяти
+    @Benchmark
+    public Page<ShipView> findAllByIndex() {
+        return fleetIndex.find(filter, PageRequest.of(0, PAGE_SIZE, Sort.by("rating")));
+    }
+
+    // GET /rest/ships/count через колоночный индекс в памяти
+    @Benchmark
+    public long getCountByIndex() {
+        return fleetIndex.count(filter);
+    }
+
+    // страница на глубине depth через LIMIT/OFFSET
+    @Benchmark
+    public Page<EntityShip> deepPageByOffset(PageDepth depth) {
+        return shipService.getShipsList(specification, PageRequest.of(depth.pageNumber, PAGE_SIZE, Sort.by("id")));
+    }
+
+    // та же страница через курсор: WHERE id > ? ORDER BY id LIMIT
+    @Benchmark
+    public List<EntityShip> deepPageBySeek(PageDepth depth) {
+        return shipService.getShipsAfter(specification, "id", depth.cursor, PAGE_SIZE + 1);
+    }
+
+    // Глубина страницы в процентах выборки (100 - последняя страница) и курсор, указывающий на её начало.
+    // Отдельное состояние: параметр depth размножает только бенчмарки OFFSET и курсора.
+    @State(Scope.Benchmark)
+    public static class PageDepth {
+
+        @Param({"0", "10", "50", "100"})
+        public int depth;
+
+        int pageNumber;
+        ShipCursor cursor; // null - первая страница
+
+        @Setup(Level.Trial)
+        public void setUp(ShipQueryBenchmark benchmark) {
+            int total = benchmark.shipService.getShipsCount(benchmark.specification);
+            int lastPage = Math.max(0, (total - 1) / PAGE_SIZE);
+            pageNumber = Math.min(lastPage, (int) ((long) total * depth / 100 / PAGE_SIZE));
+            if (pageNumber > 0) {
+                List<EntityShip> beforePage = benchmark.shipService.getShipsList(benchmark.specification,
+                        PageRequest.of(pageNumber * PAGE_SIZE - 1, 1, Sort.by("id"))).getContent();
+                cursor = ShipCursor.after("id", beforePage.get(0));
+            }
+        }
+    }
+
+    // кеш результатов не должен сбрасываться между вызовами findAllCached, но и не должен переживать trial
+    @TearDown(Level.Iteration)
+    public void resetQueryCache() {
+        shipQueryCache.invalidateAll();
+    }
+}
@@ -0,0 +1,83 @@
+package com.space.service;
+
+/*
+ Сравнение прежнего расчёта рейтинга и проверки года выпуска (GregorianCalendar + BigDecimal, LegacyShipRating)
+ с ShipRating. Запускать с -prof gc, чтобы увидеть и разницу в выделяемой памяти (gc.alloc.rate.norm).
+ */
+
+import com.space.model.EntityShip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ShipRatingBenchmark {
+
+    private static final int SHIPS = 1024;
+
+    private TimeZone timeZone;
+    private ShipRating shipRating;
+    private long[] prodDates;
+    private double[] speeds;
+    private boolean[] used;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        timeZone = TimeZone.getDefault();
+        shipRating = new ShipRating(timeZone);
+
+        List<EntityShip> ships = ShipFleet.generate(SHIPS, 42);
+        prodDates = new long[SHIPS];
+        speeds = new double[SHIPS];
+        used = new boolean[SHIPS];
+        for (int i = 0; i < SHIPS; i++) {
+            prodDates[i] = ships.get(i).getProdDate().getTime();
+            speeds[i] = ships.get(i).getSpeed();
+            used[i] = ships.get(i).getUsed();
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SHIPS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double ratingLegacy() {
+        int i = next();
+        return LegacyShipRating.rating(speeds[i], used[i], LegacyShipRating.yearOf(prodDates[i], timeZone));
+    }
+
+    @Benchmark
+    public double rating() {
+        int i = next();
+        return shipRating.rating(speeds[i], used[i], shipRating.yearOf(prodDates[i]));
+    }
+
+    @Benchmark
+    public boolean checkProdDateLegacy() {
+        return LegacyShipRating.isValidProdDate(prodDates[next()], timeZone);
+    }
+
+    @Benchmark
+    public boolean checkProdDate() {
+        return shipRating.isValidProdDate(prodDates[next()]);
+    }
+}
@@ -0,0 +1,99 @@
+package com.space.service;
+
+/*
+ Бенчмарки "чистых" методов ShipServiceImpl, которые не обращаются к БД:
+ расчёт рейтинга, проверки полей нового корабля, разбор id и построение цепочки Specification из 8 фильтров.
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ShipServiceBenchmark {
+
+    private static final int SHIPS = 1024;
+
+    private ShipServiceImpl service;
+    private List<EntityShip> ships;
+    private ShipFilter filter;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        service = new ShipServiceImpl();
+        service.shipRating = new ShipRating(TimeZone.getDefault());
+        ships = ShipFleet.generate(SHIPS, 42);
+
+        filter = new ShipFilter();
+        filter.setName("ia");
+        filter.setPlanet("Earth");
+        filter.setShipType(ShipType.MILITARY);
+        filter.setAfter(26192235600000L);
+        filter.setBefore(33134734800000L);
+        filter.setIsUsed(false);
+        filter.setMinSpeed(0.1);
+        filter.setMaxSpeed(0.9);
+        filter.setMinCrewSize(10);
+        filter.setMaxCrewSize(5000);
+        filter.setMinRating(0.5);
+        filter.setMaxRating(10.0);
+    }
+
+    private EntityShip nextShip() {
+        index = (index + 1) & (SHIPS - 1);
+        return ships.get(index);
+    }
+
+    @Benchmark
+    public Double computeRating() {
+        return service.computeRating(nextShip());
+    }
+
+    @Benchmark
+    public void checkNewShip() {
+        EntityShip ship = nextShip();
+        service.checkShipName(ship);
+        service.checkShipPlanet(ship);
+        service.checkShipProdDate(ship);
+        service.checkShipSpeed(ship);
+        service.checkShipCrewSize(ship);
+    }
+
+    @Benchmark
+    public void checkShipProdDate() {
+        service.checkShipProdDate(nextShip());
+    }
+
+    @Benchmark
+    public Long checkId() {
+        return service.checkId("123456");
+    }
+
+    @Benchmark
+    public void selectByFilter(Blackhole blackhole) {
+        Specification<EntityShip> specification = service.selectByFilter(filter);
+        blackhole.consume(specification);
+    }
+}
@@ -0,0 +1,70 @@
+package com.space.load;
+
+/*
+ Приложение во встроенном Jetty для нагрузочного теста: те же контексты Spring, что регистрирует MyWebAppInit
+ (AppConfig - корневой, WebConfig - DispatcherServlet на "/", фильтр compressionFilter), но с профилем из параметров:
+ dev - H2 в памяти (таблица создаётся test.sql), prod - MySQL из cosmoport.properties
+ (db.url/db.username/db.password можно переопределить через -D, они читаются из Environment).
+ */
+
+import com.space.config.AppConfig;
+import com.space.config.WebConfig;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.springframework.web.context.ContextLoaderListener;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.filter.DelegatingFilterProxy;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import javax.servlet.DispatcherType;
+import java.util.EnumSet;
+
+final class EmbeddedServer implements AutoCloseable {
+
+    private final Server server;
+
+    EmbeddedServer(String profile, int port, int threads) throws Exception {
+        AnnotationConfigWebApplicationContext rootContext = new AnnotationConfigWebApplicationContext();
+        rootContext.getEnvironment().setActiveProfiles(profile);
+        rootContext.register(AppConfig.class);
+
+        AnnotationConfigWebApplicationContext webContext = new AnnotationConfigWebApplicationContext();
+        webContext.register(WebConfig.class);
+
+        server = new Server(new QueuedThreadPool(threads));
+        ServerConnector connector = new ServerConnector(server);
+        connector.setPort(port);
+        server.addConnector(connector);
+
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.setContextPath("/");
+        handler.addEventListener(new ContextLoaderListener(rootContext));
+        handler.addFilter(new FilterHolder(new DelegatingFilterProxy("compressionFilter", rootContext)),
+                "/*", EnumSet.of(DispatcherType.REQUEST));
+        handler.addServlet(new ServletHolder(new DispatcherServlet(webContext)), "/");
+        server.setHandler(handler);
+
+        server.start();
+    }
+
+    // http://localhost:<порт>/
+    String getUrl() {
+        return "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort() + "/";
+    }
+
+    // Без InterruptedException в сигнатуре (ресурс try-with-resources, -Xlint:try): прерывание только отмечается.
+    @Override
+    public void close() {
+        try {
+            server.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not stop embedded server", e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.space.load;
+
+/*
+ Асинхронный HTTP-клиент нагрузочного теста (Jetty HttpClient): запросы действия отправляются без блокировки
+ потока расписания, поэтому новые действия начинаются по расписанию независимо от того, успевает ли сервер
+ (открытая модель нагрузки). Ответы принимаются со сжатием (Accept-Encoding: gzip), как у браузера.
+ */
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.http.HttpHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+final class LoadClient implements AutoCloseable {
+
+    private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    private final HttpClient client = new HttpClient();
+    private final String url;
+    private final long timeoutMillis;
+
+    LoadClient(String url, int connections, int maxQueued, long timeoutMillis) throws Exception {
+        this.url = url;
+        this.timeoutMillis = timeoutMillis;
+        client.setMaxConnectionsPerDestination(connections);
+        client.setMaxRequestsQueuedPerDestination(maxQueued);
+        client.start();
+    }
+
+    Request newRequest(String path) {
+        return client.newRequest(url + path).timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Выполняет запросы действия по очереди; после ошибки оставшиеся запросы не отправляются.
+    // actionStart - момент начала действия по расписанию (System.nanoTime), done - вызывается по завершении.
+    void run(List<TrafficMix.Step> steps, LoadStats stats, long actionStart, Runnable done) {
+        send(steps, 0, stats, actionStart, actionStart, done);
+    }
+
+    private void send(List<TrafficMix.Step> steps, int index, LoadStats stats, long actionStart, long requestStart, Runnable done) {
+        TrafficMix.Step step = steps.get(index);
+        Request request = newRequest(step.path)
+                .method(step.method)
+                .header(HttpHeader.ACCEPT, "application/json");
+        if (step.body != null) {
+            request.content(new StringContentProvider("application/json;charset=UTF-8", step.body, StandardCharsets.UTF_8));
+        }
+        request.send(new BufferingResponseListener(MAX_RESPONSE_BYTES) {
+            @Override
+            public void onComplete(Result result) {
+                long now = System.nanoTime();
+                int status = result.isFailed() ? 0 : result.getResponse().getStatus();
+                boolean ok = status >= 200 && status < 400;
+                stats.request(step.endpoint, now - requestStart, status);
+                if (ok && step.onResponse != null) {
+                    step.onResponse.accept(getContentAsString(StandardCharsets.UTF_8));
+                }
+                if (ok && index + 1 < steps.size()) {
+                    send(steps, index + 1, stats, actionStart, now, done);
+                } else {
+                    stats.action(now - actionStart, ok ? 200 : status);
+                    done.run();
+                }
+            }
+        });
+    }
+
+    // Без InterruptedException в сигнатуре (ресурс try-with-resources, -Xlint:try): прерывание только отмечается.
+    @Override
+    public void close() {
+        try {
+            client.stop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not stop HTTP client", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.space.load;
+
+/*
+ Результаты одной ступени нагрузки: время ответа по запросам (HdrHistogram, точность 3 знака, до 60 секунд),
+ ошибки по статусу ответа и действия, которые не удалось начать (слишком много незавершённых).
+ HdrHistogram приходит транзитивно от micrometer-core.
+ Время запроса, с которого начинается действие, отсчитывается от момента, когда действие должно было начаться
+ по расписанию, а не от фактической отправки: если сервер (или клиент) не успевает, задержка попадает в результат
+ (без coordinated omission). Следующие запросы действия зависят от ответа на предыдущий и отсчитываются от отправки.
+ */
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class LoadStats {
+
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentSkipListMap<>();
+    private final Endpoint total = new Endpoint();
+    private final Endpoint actions = new Endpoint();
+    private final LongAdder dropped = new LongAdder();
+
+    // status - код ответа; 0 - ответа нет (таймаут, разрыв соединения)
+    void request(String endpoint, long nanos, int status) {
+        endpoints.computeIfAbsent(endpoint, key -> new Endpoint()).record(nanos, status);
+        total.record(nanos, status);
+    }
+
+    // Действие пользователя целиком (все его запросы) от момента по расписанию; status - первый ошибочный код или 200.
+    void action(long nanos, int status) {
+        actions.record(nanos, status);
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    long getRequests() {
+        return total.histogram.getTotalCount();
+    }
+
+    long getActions() {
+        return actions.histogram.getTotalCount();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    double getErrorRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (double) total.errors.sum() / requests;
+    }
+
+    // p99 всех запросов, мс
+    double getP99Millis() {
+        return total.histogram.getValueAtPercentile(99) / 1000.0;
+    }
+
+    void print(PrintStream out, double seconds) {
+        out.printf("%-26s %9s %8s %8s %8s %8s %8s %8s %8s  %s%n",
+                "запрос", "всего", "в сек", "p50 мс", "p90 мс", "p99 мс", "p999 мс", "max мс", "ошибки", "по статусам");
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            entry.getValue().print(out, entry.getKey(), seconds);
+        }
+        total.print(out, "все запросы", seconds);
+        actions.print(out, "действия", seconds);
+        if (getDropped() > 0) {
+            out.printf("не начато действий (слишком много незавершённых): %d%n", getDropped());
+        }
+    }
+
+    private static class Endpoint {
+        final Histogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final Map<Integer, LongAdder> errorsByStatus = new ConcurrentHashMap<>();
+
+        void record(long nanos, int status) {
+            histogram.recordValue(Math.min(MAX_MICROS, Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos))));
+            if (status < 200 || status >= 400) {
+                errors.increment();
+                errorsByStatus.computeIfAbsent(status, key -> new LongAdder()).increment();
+            }
+        }
+
+        void print(PrintStream out, String name, double seconds) {
+            long count = histogram.getTotalCount();
+            StringBuilder statuses = new StringBuilder();
+            errorsByStatus.forEach((status, errors) ->
+                    statuses.append(status == 0 ? "нет ответа" : status.toString()).append(": ").append(errors.sum()).append(' '));
+            out.printf("%-26s %9d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7.2f%%  %s%n",
+                    name, count, count / seconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(90) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    count == 0 ? 0 : 100.0 * errors.sum() / count,
+                    statuses.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.space.load;
+
+/*
+ Нагрузочный тест REST API: сколько действий пользователя грида в секунду выдерживает приложение.
+     mvn -P load test-compile exec:exec -Dload.args="fleet=100000 rates=100,200,400,800 duration=30"
+ Параметры (имя=значение):
+   url=             адрес работающего приложения (http://host:port/); пусто - приложение во встроенном Jetty
+   profile=dev      профиль встроенного приложения: dev - H2 в памяти, prod - MySQL (-Ddb.url=... -Ddb.username=...)
+   port=0           порт встроенного Jetty (0 - любой свободный); server-threads=200 - потоков Jetty
+   fleet=10000      сколько кораблей загрузить перед тестом через POST /rest/ships/import (0 - не загружать)
+   rates=50,100,200,400  ступени нагрузки - действий в секунду (TrafficMix), по возрастанию
+   duration=20      длительность ступени, секунд; warmup=10 - прогрев на первой ступени (в отчёт не входит)
+   connections=64   соединений клиента; max-in-flight=2000 - незавершённых действий, сверх них новые не начинаются
+   timeout-ms=10000 таймаут запроса; slo-ms=500 - допустимый p99 всех запросов; max-error-rate=0.01; seed=42
+ Действия начинаются по расписанию с экспоненциальными интервалами (поток Пуассона) независимо от ответов сервера.
+ По каждой ступени печатаются частота и время ответа (p50...p999, max) по запросам, доля и коды ошибок,
+ а в конце - сводка: ступень считается насыщением, если выполнено меньше 95% заданных действий,
+ p99 превысил slo-ms, ошибок больше max-error-rate или действия не удалось начать.
+ */
+
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.client.util.InputStreamResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.http.HttpMethod;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+public final class LoadTest {
+
+    private static final int IMPORT_CHUNK = 10_000;
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private final Map<String, String> options = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LoadTest(String[] args) {
+        options.put("url", "");
+        options.put("profile", "dev");
+        options.put("port", "0");
+        options.put("server-threads", "200");
+        options.put("fleet", "10000");
+        options.put("rates", "50,100,200,400");
+        options.put("duration", "20");
+        options.put("warmup", "10");
+        options.put("connections", "64");
+        options.put("max-in-flight", "2000");
+        options.put("timeout-ms", "10000");
+        options.put("slo-ms", "500");
+        options.put("max-error-rate", "0.01");
+        options.put("seed", "42");
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !options.containsKey(arg.substring(0, separator))) {
+                throw new IllegalArgumentException("Неизвестный параметр " + arg + ", допустимы " + options.keySet());
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(args).run();
+    }
+
+    private void run() throws Exception {
+        System.out.println("Параметры: " + options);
+        EmbeddedServer server = null;
+        String url = options.get("url");
+        if (url.isEmpty()) {
+            server = new EmbeddedServer(options.get("profile"), intOption("port"), intOption("server-threads"));
+            url = server.getUrl();
+            System.out.println("Приложение запущено: " + url);
+        } else if (!url.endsWith("/")) {
+            url += "/";
+        }
+
+        int maxInFlight = intOption("max-in-flight");
+        try (LoadClient client = new LoadClient(url, intOption("connections"), maxInFlight, longOption("timeout-ms"))) {
+            seed(client, intOption("fleet"));
+            long[] ids = ids(client);
+            System.out.printf("Кораблей для чтения и изменения: %d%n", ids.length);
+            TrafficMix mix = new TrafficMix(longOption("seed"), ids);
+            Random arrivals = new Random(longOption("seed"));
+
+            List<Integer> rates = new ArrayList<>();
+            for (String rate : options.get("rates").split(",")) {
+                rates.add(Integer.parseInt(rate.trim()));
+            }
+
+            if (intOption("warmup") > 0) {
+                System.out.printf("%nПрогрев: %d действий/с, %d с%n", rates.get(0), intOption("warmup"));
+                step(client, mix, arrivals, rates.get(0), intOption("warmup"), maxInFlight);
+            }
+
+            StringBuilder summary = new StringBuilder();
+            Integer sustained = null;
+            for (int rate : rates) {
+                System.out.printf("%nСтупень: %d действий/с, %d с%n", rate, intOption("duration"));
+                long start = System.nanoTime();
+                LoadStats stats = step(client, mix, arrivals, rate, intOption("duration"), maxInFlight);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                stats.print(System.out, seconds);
+
+                double achieved = stats.getActions() / seconds;
+                List<String> reasons = new ArrayList<>();
+                if (achieved < rate * 0.95) {
+                    reasons.add(String.format("выполнено %.1f действий/с", achieved));
+                }
+                if (stats.getP99Millis() > longOption("slo-ms")) {
+                    reasons.add(String.format("p99 %.1f мс", stats.getP99Millis()));
+                }
+                if (stats.getErrorRate() > Double.parseDouble(options.get("max-error-rate"))) {
+                    reasons.add(String.format("ошибок %.2f%%", 100 * stats.getErrorRate()));
+                }
+                if (stats.getDropped() > 0) {
+                    reasons.add("не начато " + stats.getDropped() + " действий");
+                }
+                summary.append(String.format("%10d %12.1f %10.2f %9.2f%%  %s%n", rate, achieved, stats.getP99Millis(),
+                        100 * stats.getErrorRate(), reasons.isEmpty() ? "ok" : "насыщение: " + String.join(", ", reasons)));
+                if (reasons.isEmpty() && (sustained == null || rate > sustained)) {
+                    sustained = rate;
+                }
+            }
+
+            System.out.printf("%nСводка%n%10s %12s %10s %10s%n%s", "задано/с", "выполнено/с", "p99 мс", "ошибки", summary);
+            System.out.println(sustained == null
+                    ? "Насыщение уже на первой ступени"
+                    : "Наибольшая нагрузка без насыщения: " + sustained + " действий/с");
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    // Одна ступень: действия начинаются с частотой rate в течение seconds секунд, затем ожидаются незавершённые.
+    private LoadStats step(LoadClient client, TrafficMix mix, Random arrivals, int rate, int seconds, int maxInFlight)
+            throws InterruptedException {
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        double meanInterval = 1e9 / rate;
+        double next = start;
+        while (true) {
+            next += -Math.log(1 - arrivals.nextDouble()) * meanInterval;
+            if (next >= end) {
+                break;
+            }
+            long wait = (long) next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                stats.dropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.run(mix.next(), stats, (long) next, inFlight::decrementAndGet);
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(longOption("timeout-ms") * 3);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    // Загрузка fleet случайных кораблей через POST /rest/ships/import (NDJSON) пачками по IMPORT_CHUNK.
+    private void seed(LoadClient client, int fleet) throws Exception {
+        if (fleet <= 0) {
+            return;
+        }
+        Random random = new Random(longOption("seed"));
+        long start = System.nanoTime();
+        for (int from = 0; from < fleet; from += IMPORT_CHUNK) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(fleet, from + IMPORT_CHUNK); i++) {
+                body.append(TrafficMix.shipJson(random)).append('\n');
+            }
+            ContentResponse response = client.newRequest("rest/ships/import")
+                    .method(HttpMethod.POST)
+                    .timeout(10, TimeUnit.MINUTES)
+                    .content(new StringContentProvider("application/x-ndjson;charset=UTF-8", body.toString(), StandardCharsets.UTF_8))
+                    .send();
+            if (response.getStatus() != 200) {
+                throw new IllegalStateException("POST /rest/ships/import: " + response.getStatus() + " " + response.getContentAsString());
+            }
+        }
+        System.out.printf("Загружено кораблей: %d за %.1f с%n", fleet, (System.nanoTime() - start) / 1e9);
+    }
+
+    // id всех кораблей из GET /rest/ships/export (NDJSON читается потоком, без буферизации ответа целиком).
+    private static long[] ids(LoadClient client) throws Exception {
+        InputStreamResponseListener listener = new InputStreamResponseListener();
+        client.newRequest("rest/ships/export").timeout(10, TimeUnit.MINUTES).send(listener);
+        if (listener.get(1, TimeUnit.MINUTES).getStatus() != 200) {
+            throw new IllegalStateException("GET /rest/ships/export: " + listener.get(0, TimeUnit.SECONDS).getStatus());
+        }
+        LongStream.Builder ids = LongStream.builder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(listener.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = ID.matcher(line);
+                if (matcher.find()) {
+                    ids.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return ids.build().toArray();
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private long longOption(String name) {
+        return Long.parseLong(options.get(name));
+    }
+}
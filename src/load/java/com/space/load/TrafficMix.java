@@ -0,0 +1,167 @@
+package com.space.load;
+
+/*
+ Действия пользователя грида в тех же запросах, что отправляет scripts.js, с весами:
+   page         35% - поиск/листание: GET /rest/ships/page с фильтрами, сортировкой и размером страницы из формы;
+   list+count   30% - то же прежним способом: GET /rest/ships и GET /rest/ships/count с теми же параметрами;
+   edit         20% - GET /rest/ships/{id} (открыть форму), POST /rest/ships/{id}, перезагрузка первой страницы;
+   create       10% - POST /rest/ships, перезагрузка первой страницы;
+   delete        5% - DELETE /rest/ships/{id} корабля, созданного этим тестом, перезагрузка первой страницы
+                      (если созданных ещё нет - create).
+ Половина поисков без фильтров, страница чаще первая, размер страницы чаще 3 (значение по умолчанию в форме).
+ Действия выбирает один поток расписания, поэтому Random не разделяется между потоками.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class TrafficMix {
+
+    private static final String[] NAMES = {"Orion", "Daedalus", "Eagle", "Serenity", "Falcon", "Nostromo", "Prometheus",
+            "Voyager", "Enterprise", "Galactica", "Rocinante", "Normandy", "Aurora", "Pegasus", "Phoenix", "Valkyrie"};
+    private static final String[] NAME_PARTS = {"or", "ra", "ag", "en", "al", "ix", "us", "ro"};
+    private static final String[] PLANETS = {"Earth", "Mars", "Venus", "Jupiter", "Saturn", "Uranus", "Neptune", "Pluto"};
+    private static final String[] SHIP_TYPES = {"TRANSPORT", "MILITARY", "MERCHANT"};
+    private static final String[] ORDERS = {"SPEED", "DATE", "RATING"};
+    private static final int[] PAGE_SIZES = {1, 3, 5, 10, 20};
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private static final int PAGE = 35;
+    private static final int LIST_AND_COUNT = 30;
+    private static final int EDIT = 20;
+    private static final int CREATE = 10;
+
+    private final Random random;
+    private final long[] ids;
+    private final Deque<Long> created = new ConcurrentLinkedDeque<>();
+
+    // ids - корабли, которые читаются и изменяются (не удаляются)
+    TrafficMix(long seed, long[] ids) {
+        this.random = new Random(seed);
+        this.ids = ids;
+    }
+
+    static final class Step {
+        final String method;
+        final String endpoint;
+        final String path;
+        final String body;
+        final Consumer<String> onResponse;
+
+        Step(String method, String endpoint, String path, String body, Consumer<String> onResponse) {
+            this.method = method;
+            this.endpoint = endpoint;
+            this.path = path;
+            this.body = body;
+            this.onResponse = onResponse;
+        }
+    }
+
+    // Запросы следующего действия; выполняются по порядку, каждый после ответа на предыдущий.
+    List<Step> next() {
+        int dice = random.nextInt(100);
+        if (dice < PAGE) {
+            return Arrays.asList(get("GET /rest/ships/page", "rest/ships/page?" + search()));
+        }
+        dice -= PAGE;
+        if (dice < LIST_AND_COUNT) {
+            String search = search();
+            return Arrays.asList(get("GET /rest/ships", "rest/ships?" + search),
+                    get("GET /rest/ships/count", "rest/ships/count?" + search));
+        }
+        dice -= LIST_AND_COUNT;
+        if (dice < EDIT && ids.length > 0) {
+            long id = ids[random.nextInt(ids.length)];
+            return Arrays.asList(get("GET /rest/ships/{id}", "rest/ships/" + id),
+                    new Step("POST", "POST /rest/ships/{id}", "rest/ships/" + id, shipJson(random), null),
+                    firstPage());
+        }
+        dice -= EDIT;
+        Long deleted = dice >= CREATE ? created.pollFirst() : null;
+        if (deleted != null) {
+            return Arrays.asList(new Step("DELETE", "DELETE /rest/ships/{id}", "rest/ships/" + deleted, null, null),
+                    firstPage());
+        }
+        return Arrays.asList(new Step("POST", "POST /rest/ships", "rest/ships", shipJson(random), this::created),
+                firstPage());
+    }
+
+    private void created(String response) {
+        Matcher matcher = ID.matcher(response);
+        if (matcher.find()) {
+            created.add(Long.parseLong(matcher.group(1)));
+        }
+    }
+
+    // Корабль в формате тела POST /rest/ships, корректный по правилам создания.
+    static String shipJson(Random random) {
+        Calendar prodDate = new GregorianCalendar(2800 + random.nextInt(220), random.nextInt(12), 1 + random.nextInt(28));
+        return String.format(Locale.ROOT,
+                "{\"name\":\"%s %d\",\"planet\":\"%s\",\"shipType\":\"%s\",\"prodDate\":%d,\"isUsed\":%b,\"speed\":%.2f,\"crewSize\":%d}",
+                NAMES[random.nextInt(NAMES.length)], random.nextInt(1000),
+                PLANETS[random.nextInt(PLANETS.length)],
+                SHIP_TYPES[random.nextInt(SHIP_TYPES.length)],
+                prodDate.getTimeInMillis(),
+                random.nextBoolean(),
+                (1 + random.nextInt(99)) / 100.0,
+                1 + random.nextInt(9999));
+    }
+
+    private Step firstPage() {
+        return get("GET /rest/ships/page", "rest/ships/page?pageNumber=0&pageSize=3&order=ID");
+    }
+
+    private static Step get(String endpoint, String path) {
+        return new Step("GET", endpoint, path, null, null);
+    }
+
+    // Параметры поиска, как их собирает processSearch в scripts.js.
+    private String search() {
+        List<String> parameters = new ArrayList<>();
+        if (random.nextBoolean()) {
+            if (random.nextInt(5) == 0) {
+                parameters.add("name=" + NAME_PARTS[random.nextInt(NAME_PARTS.length)]);
+            }
+            if (random.nextInt(5) == 0) {
+                parameters.add("planet=" + PLANETS[random.nextInt(PLANETS.length)]);
+            }
+            if (random.nextInt(3) == 0) {
+                parameters.add("shipType=" + SHIP_TYPES[random.nextInt(SHIP_TYPES.length)]);
+            }
+            if (random.nextInt(5) == 0) {
+                int after = 2800 + random.nextInt(200);
+                parameters.add("after=" + new GregorianCalendar(after, 0, 1).getTimeInMillis());
+                parameters.add("before=" + new GregorianCalendar(after + 1 + random.nextInt(3019 - after), 0, 1).getTimeInMillis());
+            }
+            if (random.nextInt(3) == 0) {
+                parameters.add("isUsed=" + random.nextBoolean());
+            }
+            if (random.nextInt(5) == 0) {
+                double minSpeed = random.nextInt(50) / 100.0;
+                parameters.add(String.format(Locale.ROOT, "minSpeed=%.2f&maxSpeed=%.2f", minSpeed, minSpeed + 0.1 + random.nextInt(40) / 100.0));
+            }
+            if (random.nextInt(5) == 0) {
+                int minCrewSize = random.nextInt(5000);
+                parameters.add("minCrewSize=" + minCrewSize + "&maxCrewSize=" + (minCrewSize + 1 + random.nextInt(5000)));
+            }
+            if (random.nextInt(10) == 0) {
+                parameters.add(String.format(Locale.ROOT, "minRating=%.1f", random.nextInt(30) / 10.0));
+            }
+        }
+        parameters.add("pageNumber=" + (random.nextInt(5) < 3 ? 0 : 1 + random.nextInt(9)));
+        parameters.add("pageSize=" + (random.nextBoolean() ? 3 : PAGE_SIZES[random.nextInt(PAGE_SIZES.length)]));
+        parameters.add("order=" + (random.nextInt(20) < 11 ? "ID" : ORDERS[random.nextInt(ORDERS.length)]));
+        return String.join("&", parameters);
+    }
+}
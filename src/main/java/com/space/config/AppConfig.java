@@ -1,13 +1,26 @@
 package com.space.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.space.metrics.MeteredDataSource;
+import com.space.metrics.QueryLog;
+import com.space.metrics.RepositoryMetricsPostProcessor;
+import com.space.metrics.ShipMetrics;
+import com.space.service.ShipRating;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
-import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.JpaVendorAdapter;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -17,16 +30,24 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.util.Arrays;
 import java.util.Properties;
-
-import static org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType.H2;
+import java.util.TimeZone;
+import java.util.UUID;
 
 @Configuration
 @EnableTransactionManagement
-@ComponentScan("com.space.service")
+@ComponentScan({"com.space.service", "com.space.repository"})
 @EnableJpaRepositories(basePackages = "com.space.repository")
+@PropertySource(value = "classpath:cosmoport.properties", encoding = "UTF-8")
 public class AppConfig {
 
+    private final Environment environment;
+
+    public AppConfig(Environment environment) {
+        this.environment = environment;
+    }
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -43,25 +64,96 @@ public class AppConfig {
     @Profile("prod")
     @Bean
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        dataSource.setUrl("jdbc:mysql://localhost:3306/cosmoport?serverTimezone=UTC");
-        dataSource.setUsername("root");
-        dataSource.setPassword("root");
-        return dataSource;
+        HikariConfig config = poolConfig("cosmoport-pool");
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setJdbcUrl(environment.getRequiredProperty("db.url"));
+        config.setUsername(environment.getRequiredProperty("db.username"));
+        config.setPassword(environment.getRequiredProperty("db.password"));
+
+        // кешируем prepared statements на стороне драйвера и используем server-side prepared statements MySQL
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", environment.getRequiredProperty("db.statement-cache.size"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", environment.getRequiredProperty("db.statement-cache.sql-limit"));
+        // пакет однотипных INSERT драйвер отправляет одним многострочным INSERT
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        // с fetchSize > 0 драйвер читает результат серверным курсором порциями, а не загружает его целиком (экспорт)
+        config.addDataSourceProperty("useCursorFetch", "true");
+        return new MeteredDataSource(new HikariDataSource(config), shipMetrics(), queryLog());
     }
 
+    // В dev-профиле (тесты) та же конфигурация пула работает поверх H2 in-memory,
+    // поэтому тесты проходят через HikariCP так же, как prod.
     @Profile("dev")
     @Bean(name = "dataSource")
     public DataSource dataSourceForTests() {
+        String databaseName = UUID.randomUUID().toString();
+        HikariConfig config = poolConfig("cosmoport-pool-" + databaseName);
+        config.setDriverClassName("org.h2.Driver");
+        config.setJdbcUrl("jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        HikariDataSource dataSource = new HikariDataSource(config);
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        populator.addScript(new ClassPathResource("test.sql"));
+        populator.setSqlScriptEncoding("UTF-8");
+        populator.setIgnoreFailedDrops(true);
+        DatabasePopulatorUtils.execute(populator, dataSource);
+
+        return new MeteredDataSource(dataSource, shipMetrics(), queryLog());
+    }
+
+    // Общие настройки пула: размеры, таймауты, проверка соединений, поиск утечек.
+    // Метрики пула (active/idle/total/threadsAwaitingConnection) публикуются через JMX (HikariPoolMXBean).
+    private HikariConfig poolConfig(String poolName) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setMinimumIdle(environment.getRequiredProperty("db.pool.minimum-idle", Integer.class));
+        config.setMaximumPoolSize(environment.getRequiredProperty("db.pool.maximum-size", Integer.class));
+        config.setConnectionTimeout(environment.getRequiredProperty("db.pool.connection-timeout-ms", Long.class));
+        config.setValidationTimeout(environment.getRequiredProperty("db.pool.validation-timeout-ms", Long.class));
+        config.setIdleTimeout(environment.getRequiredProperty("db.pool.idle-timeout-ms", Long.class));
+        config.setMaxLifetime(environment.getRequiredProperty("db.pool.max-lifetime-ms", Long.class));
+        config.setLeakDetectionThreshold(environment.getRequiredProperty("db.pool.leak-detection-threshold-ms", Long.class));
+        config.setRegisterMbeans(true);
+        config.setMetricRegistry(meterRegistry());
+        return config;
+    }
+
+    // Метрики приложения и пула соединений; отдаются в формате Prometheus через GET /rest/stats/prometheus.
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
 
-        return new EmbeddedDatabaseBuilder()
-                .generateUniqueName(true)
-                .setType(H2)
-                .setScriptEncoding("UTF-8")
-                .ignoreFailedDrops(true)
-                .addScript("test.sql")
-                .build();
+    @Bean
+    public ShipMetrics shipMetrics() {
+        return new ShipMetrics(meterRegistry());
+    }
+
+    // Журнал SQL: медленные выражения и лишние обращения к БД в пределах HTTP-запроса (QueryLogInterceptor в WebConfig).
+    @Bean
+    public QueryLog queryLog() {
+        return new QueryLog(environment.getRequiredProperty("db.query-log.enabled", Boolean.class),
+                environment.getRequiredProperty("db.query-log.slow-threshold-ms", Long.class),
+                environment.getRequiredProperty("db.query-log.n-plus-one-threshold", Integer.class),
+                environment.getRequiredProperty("db.query-log.max-statements", Integer.class));
+    }
+
+    // static: post-processor создаётся до остальных бинов конфигурации
+    @Bean
+    public static RepositoryMetricsPostProcessor repositoryMetricsPostProcessor(ObjectProvider<ShipMetrics> shipMetrics) {
+        return new RepositoryMetricsPostProcessor(shipMetrics);
+    }
+
+    // Параметры рейтинга кораблей; после их изменения рейтинги в БД пересчитывает POST /rest/ships/ratings/recompute.
+    @Bean
+    public ShipRating shipRating() {
+        return new ShipRating(TimeZone.getDefault(),
+                environment.getRequiredProperty("ship.rating.current-year", Integer.class),
+                environment.getRequiredProperty("ship.rating.coefficient", Double.class),
+                environment.getRequiredProperty("ship.rating.used-coefficient", Double.class));
     }
 
     @Bean
@@ -72,6 +164,15 @@ public class AppConfig {
         return transactionManager;
     }
 
+    // Фильтр сжатия ответов; подключается в MyWebAppInit через DelegatingFilterProxy, чтобы читать настройки из cosmoport.properties.
+    @Bean
+    public CompressionFilter compressionFilter() {
+        return new CompressionFilter(environment.getRequiredProperty("http.compression.enabled", Boolean.class),
+                environment.getRequiredProperty("http.compression.min-size", Integer.class),
+                environment.getRequiredProperty("http.compression.level", Integer.class),
+                Arrays.asList(environment.getRequiredProperty("http.compression.mime-types", String[].class)));
+    }
+
     @Bean
     public PersistenceExceptionTranslationPostProcessor exceptionTranslation() {
         return new PersistenceExceptionTranslationPostProcessor();
@@ -79,7 +180,10 @@ public class AppConfig {
 
     private Properties additionalProperties() {
         Properties properties = new Properties();
-        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQL5Dialect");
+        properties.setProperty("hibernate.dialect", CosmoportMySQLDialect.class.getName());
+        // JDBC-пакеты для UPDATE (INSERT с IDENTITY Hibernate в пакеты не объединяет - см. ShipBatchWriter)
+        properties.setProperty("hibernate.jdbc.batch_size", environment.getRequiredProperty("db.batch-size"));
+        properties.setProperty("hibernate.order_updates", "true");
 
         return properties;
     }
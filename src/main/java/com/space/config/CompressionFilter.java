@@ -0,0 +1,385 @@
+package com.space.config;
+
+/*
+ Сжатие ответов gzip для клиентов, приславших Accept-Encoding: gzip (с учётом q=0).
+ Начало тела копится в буфере размером min-size: ответ, который в него поместился, отдаётся как есть
+ с Content-Length (сжимать несколько сотен байт дороже, чем передать их). Как только тело превышает min-size,
+ решение принимается один раз: если тип ответа из mime-types и он ещё не сжат - дальше всё идёт через GZIPOutputStream
+ прямо в поток ответа, без накопления всего тела в памяти (это важно для потокового экспорта).
+ Уровень сжатия по умолчанию 1 (как gzip_comp_level в nginx): страница из 1000 кораблей сжимается втрое быстрее,
+ чем с уровнем 6, а ответ больше примерно на 30% (ShipJsonBenchmark).
+ Сжатому ответу ETag заменяется на слабый (W/"..."): байты отличаются от несжатых, а If-None-Match
+ сравнивает ETag без учёта W/, так что условный GET продолжает работать.
+ Brotli не поддерживается: в JDK нет кодировщика, а нативные библиотеки для него сервер не подключает.
+ */
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressionFilter extends OncePerRequestFilter {
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final int level;
+    private final Set<String> mimeTypes = new HashSet<>();
+
+    public CompressionFilter(boolean enabled, int minSize, int level, Collection<String> mimeTypes) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.level = level;
+        for (String mimeType : mimeTypes) {
+            this.mimeTypes.add(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // от Accept-Encoding зависит представление ответа - кеши должны это учитывать
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        CompressingResponse compressingResponse = new CompressingResponse(response);
+        chain.doFilter(request, compressingResponse);
+        compressingResponse.finish();
+    }
+
+    // gzip (или x-gzip) принимается, если указан с q > 0 либо не указан, но есть "*" с q > 0.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean anyAccepted = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return quality(params) > 0;
+            }
+            if (coding.equals("*")) {
+                anyAccepted = quality(params) > 0;
+            }
+        }
+        return anyAccepted;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private enum State {
+        BUFFERING,      // тело ещё помещается в буфер, решение не принято
+        COMPRESSING,    // пишем через gzip
+        PASSTHROUGH     // пишем как есть
+    }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+
+        private State state = State.BUFFERING;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream(minSize);
+        private GZIPOutputStream gzip;
+        private long contentLength = -1;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        private boolean finished;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called for this response");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private ServletOutputStream stream() {
+            if (outputStream == null) {
+                outputStream = new CompressingOutputStream();
+            }
+            return outputStream;
+        }
+
+        // Длина, объявленная приложением, верна только для несжатого ответа.
+        @Override
+        public void setContentLength(int length) {
+            setContentLengthLong(length);
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+            if (state == State.BUFFERING) {
+                contentLength = length;
+            } else if (state == State.PASSTHROUGH) {
+                super.setContentLengthLong(length);
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(value);
+            } else {
+                super.addIntHeader(name, value);
+            }
+        }
+
+        // Пока решение не принято, ответ не фиксируется: буфер отправится в finish() или при превышении min-size.
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.COMPRESSING) {
+                gzip.flush();
+            }
+            if (state != State.BUFFERING) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (state == State.BUFFERING) {
+                buffer.reset();
+            } else {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (state == State.BUFFERING) {
+                buffer.reset();
+                contentLength = -1;
+            }
+        }
+
+        // Страницу ошибки и перенаправление формирует контейнер - накопленное тело к ним не относится.
+        @Override
+        public void sendError(int status) throws IOException {
+            passThrough(false);
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            passThrough(false);
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            passThrough(false);
+            super.sendRedirect(location);
+        }
+
+        // Тело превысило min-size: сжимаем, если это подходящий и ещё не сжатый ответ.
+        private void decide() throws IOException {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!isCompressible(response)) {
+                passThrough(true);
+                return;
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            String eTag = response.getHeader(HttpHeaders.ETAG);
+            if (eTag != null && !eTag.startsWith("W/")) {
+                response.setHeader(HttpHeaders.ETAG, "W/" + eTag);
+            }
+            gzip = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+            buffer.writeTo(gzip);
+            buffer = null;
+            state = State.COMPRESSING;
+        }
+
+        private boolean isCompressible(HttpServletResponse response) {
+            if (response.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+                return false;
+            }
+            String contentType = response.getContentType();
+            if (contentType == null) {
+                return false;
+            }
+            int parameters = contentType.indexOf(';');
+            String mimeType = parameters < 0 ? contentType : contentType.substring(0, parameters);
+            return mimeTypes.contains(mimeType.trim().toLowerCase(Locale.ROOT));
+        }
+
+        private void passThrough(boolean writeBuffer) throws IOException {
+            if (state != State.BUFFERING) {
+                return;
+            }
+            state = State.PASSTHROUGH;
+            if (contentLength >= 0) {
+                super.setContentLengthLong(contentLength);
+            }
+            if (writeBuffer && buffer.size() > 0) {
+                buffer.writeTo(getResponse().getOutputStream());
+            }
+            buffer = null;
+        }
+
+        // Конец ответа: маленькое тело уходит как есть с точной длиной, у сжатого дописывается окончание gzip.
+        void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (writer != null) {
+                writer.flush();
+            }
+            if (state == State.BUFFERING) {
+                if (buffer.size() > 0) {
+                    contentLength = buffer.size();
+                }
+                passThrough(true);
+            } else if (state == State.COMPRESSING) {
+                gzip.finish();
+            }
+        }
+
+        private class CompressingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                if (state == State.BUFFERING && buffer.size() + length > minSize) {
+                    decide();
+                }
+                switch (state) {
+                    case BUFFERING:
+                        buffer.write(bytes, offset, length);
+                        break;
+                    case COMPRESSING:
+                        gzip.write(bytes, offset, length);
+                        break;
+                    default:
+                        getResponse().getOutputStream().write(bytes, offset, length);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (state == State.COMPRESSING) {
+                    gzip.flush();
+                } else if (state == State.PASSTHROUGH) {
+                    getResponse().getOutputStream().flush();
+                }
+            }
+
+            // JsonGenerator закрывает поток по окончании записи - для нас это конец ответа.
+            @Override
+            public void close() throws IOException {
+                finish();
+            }
+
+            // Пока тело копится или сжимается, запись всегда синхронная; неблокирующая запись (WriteListener)
+            // возможна только в несжатый ответ, который уже идёт напрямую в поток контейнера.
+            @Override
+            public boolean isReady() {
+                return state != State.PASSTHROUGH || containerStream().isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                if (state != State.PASSTHROUGH) {
+                    throw new IllegalStateException("WriteListener is only supported for uncompressed responses, state " + state);
+                }
+                containerStream().setWriteListener(writeListener);
+            }
+
+            private ServletOutputStream containerStream() {
+                try {
+                    return getResponse().getOutputStream();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+}
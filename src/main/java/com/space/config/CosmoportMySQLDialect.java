@@ -0,0 +1,16 @@
+package com.space.config;
+
+import org.hibernate.dialect.MySQL5Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+// Диалект MySQL с функцией полнотекстового поиска, которую можно вызвать из Criteria API:
+// criteriaBuilder.function("ngram_match", Double.class, column, phrase) -> MATCH(column) AGAINST(phrase IN BOOLEAN MODE)
+
+public class CosmoportMySQLDialect extends MySQL5Dialect {
+
+    public CosmoportMySQLDialect() {
+        super();
+        registerFunction("ngram_match", new SQLFunctionTemplate(StandardBasicTypes.DOUBLE, "match(?1) against (?2 in boolean mode)"));
+    }
+}
@@ -2,13 +2,22 @@ package com.space.config;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.metrics.MeteredJackson2HttpMessageConverter;
+import com.space.metrics.QueryLog;
+import com.space.metrics.QueryLogInterceptor;
+import com.space.metrics.RequestMetricsInterceptor;
+import com.space.metrics.ShipMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -22,6 +31,18 @@ import java.util.List;
 @ComponentScan("com.space.controller")
 public class WebConfig implements WebMvcConfigurer {
 
+    private ShipMetrics shipMetrics;
+    private QueryLog queryLog;
+
+    @Autowired
+    public void setShipMetrics(ShipMetrics shipMetrics) {
+        this.shipMetrics = shipMetrics;
+    }
+
+    @Autowired
+    public void setQueryLog(QueryLog queryLog) {
+        this.queryLog = queryLog;
+    }
 
     @Bean
     public ViewResolver internalResourceViewResolver() {
@@ -42,11 +63,32 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/resources/**").addResourceLocations("/resources/");
     }
 
+    // ObjectMapper, которым сериализуются ответы REST; используется и конвертером, и потоковым экспортом,
+    // чтобы JSON корабля везде был одинаковым
+    @Bean
+    public ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
+        objectMapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        return objectMapper;
+    }
+
+    // конвертер замеряет чтение тела запроса и запись ответа (слои parse и serialize в ShipMetrics)
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.getObjectMapper().setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE);
-        converter.getObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+        MeteredJackson2HttpMessageConverter converter = new MeteredJackson2HttpMessageConverter(objectMapper(), shipMetrics);
         converters.add(converter);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(shipMetrics));
+        registry.addInterceptor(new QueryLogInterceptor(queryLog));
+    }
+
+    // первым - чтобы исключение попало в метрики запроса до того, как его превратят в ответ с кодом ошибки
+    @Override
+    public void extendHandlerExceptionResolvers(List<HandlerExceptionResolver> resolvers) {
+        resolvers.add(0, RequestMetricsInterceptor::exposeException);
+    }
 }
\ No newline at end of file
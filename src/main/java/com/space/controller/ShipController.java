@@ -2,27 +2,46 @@ package com.space.controller;
 
 // в данном классе необходимо описать REST-методы
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.model.EntityShip;
-import com.space.model.ShipType;
-import com.space.service.ShipServiceImpl;
+import com.space.model.ShipFilter;
+import com.space.model.ShipView;
+import com.space.service.ShipCursor;
+import com.space.service.ShipBulkResult;
+import com.space.service.ShipImportResult;
+import com.space.service.ShipRatingProgress;
+import com.space.service.ShipService;
+import com.space.service.ShipStats;
+import exceptions.BadRequestException;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/rest")
 public class ShipController {
 
-    private final ShipServiceImpl shipService;
+    // Наибольший pageSize для GET /rest/ships/seek: страница читается из БД целиком (и ещё одна запись сверху).
+    static final int MAX_SLICE_SIZE = 1000;
 
-    public ShipController(ShipServiceImpl shipService) {
+    private final ShipService shipService;
+    private final ObjectMapper objectMapper;
+
+    public ShipController(ShipService shipService, ObjectMapper objectMapper) {
         this.shipService = shipService;
+        this.objectMapper = objectMapper;
     }
 
     // Аннотация @RequestMapping предназначена для того, чтобы задать методам вашего
@@ -52,62 +71,156 @@ public class ShipController {
      */
 
     @GetMapping("/ships")
-    public ResponseEntity<List<EntityShip>> findAll(@RequestParam(value = "name", required = false) String name,
-                                                    @RequestParam(value = "planet", required = false) String planet,
-                                                    @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                                    @RequestParam(value = "after", required = false) Long after,
-                                                    @RequestParam(value = "before", required = false) Long before,
-                                                    @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                                    @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                                    @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                                    @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                                    @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                                    @RequestParam(value = "minRating", required = false) Double minRating,
-                                                    @RequestParam(value = "maxRating", required = false) Double maxRating,
+    public ResponseEntity<List<ShipView>> findAll(@ModelAttribute ShipFilter filter,
                                                     @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
                                                     @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
-                                                    @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize) {
+                                                    @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                                    WebRequest request) {
             // аннотация @RequestParam используется для привязки параметров запроса к параметру метода в контроллере.
             // Параметры, использующие эту аннотацию, являются обязательными по умолчанию, но вы можете указать, что параметр является необязательным, установив для атрибута required @ RequestParam значение false (например, @RequestParam (value = "id", required = false)).
+            // @ModelAttribute связывает параметры фильтров (name, planet, shipType, after, before, isUsed, minSpeed...) с полями ShipFilter.
+        if (isNotModified(request)) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
 
-        Specification<EntityShip> specification = Specification.where(shipService.selectByName(name)
-                .and(shipService.selectByPlanet(planet))
-                .and(shipService.selectByShipType(shipType))
-                .and(shipService.selectByProdDate(after, before))
-                .and(shipService.selectByUse(isUsed))
-                .and(shipService.selectBySpeed(minSpeed, maxSpeed))
-                .and(shipService.selectByCrewSize(minCrewSize, maxCrewSize))
-                .and(shipService.selectByRating(minRating, maxRating)));
-
-        return new ResponseEntity<>(shipService.getShipsList(specification, pageable).getContent(), HttpStatus.OK);
+        return new ResponseEntity<>(shipService.getShipsList(filter, pageable).getContent(), HttpStatus.OK);
     }
 
     // метод получения количества экземпляров (Get ships count)
     @GetMapping("/ships/count")
-    public ResponseEntity<Integer> getCount(@RequestParam(value = "name", required = false) String name,
-                                            @RequestParam(value = "planet", required = false) String planet,
-                                            @RequestParam(value = "shipType", required = false) ShipType shipType,
-                                            @RequestParam(value = "after", required = false) Long after,
-                                            @RequestParam(value = "before", required = false) Long before,
-                                            @RequestParam(value = "isUsed", required = false) Boolean isUsed,
-                                            @RequestParam(value = "minSpeed", required = false) Double minSpeed,
-                                            @RequestParam(value = "maxSpeed", required = false) Double maxSpeed,
-                                            @RequestParam(value = "minCrewSize", required = false) Integer minCrewSize,
-                                            @RequestParam(value = "maxCrewSize", required = false) Integer maxCrewSize,
-                                            @RequestParam(value = "minRating", required = false) Double minRating,
-                                            @RequestParam(value = "maxRating", required = false) Double maxRating) {
-
-        Specification<EntityShip> specification = Specification.where(shipService.selectByName(name)
-                .and(shipService.selectByPlanet(planet))
-                .and(shipService.selectByShipType(shipType))
-                .and(shipService.selectByProdDate(after, before))
-                .and(shipService.selectByUse(isUsed))
-                .and(shipService.selectBySpeed(minSpeed, maxSpeed))
-                .and(shipService.selectByCrewSize(minCrewSize, maxCrewSize))
-                .and(shipService.selectByRating(minRating, maxRating)));
-
-        return new ResponseEntity<>(shipService.getShipsCount(specification), HttpStatus.OK);
+    public ResponseEntity<Integer> getCount(@ModelAttribute ShipFilter filter, WebRequest request) {
+        if (isNotModified(request)) {
+            return null;
+        }
+
+        return new ResponseEntity<>(shipService.getShipsCount(filter), HttpStatus.OK);
+    }
+
+    // метод получения агрегатов по кораблям (Get ships stats)
+    /*
+    Группировка по groupBy (NONE, PLANET, SHIP_TYPE, USED, YEAR) с теми же фильтрами, что у GET /rest/ships.
+    Для каждой группы - количество кораблей и count/min/max/sum/avg/p50/p90/p99 по speed, crewSize и rating.
+     */
+    @GetMapping("/ships/stats")
+    public ResponseEntity<ShipStats> getStats(@ModelAttribute ShipFilter filter,
+                                              @RequestParam(value = "groupBy", required = false, defaultValue = "NONE") ShipGroup groupBy,
+                                              WebRequest request) {
+        if (isNotModified(request)) {
+            return null;
+        }
+
+        return new ResponseEntity<>(shipService.getShipStats(filter, groupBy.getFieldName()), HttpStatus.OK);
+    }
+
+    // метод получения страницы вместе с общим количеством (Get ships page)
+    /*
+    Объединяет GET /rest/ships и GET /rest/ships/count: параметры разбираются один раз,
+    Specification строится один раз, а общее количество берётся из того же Page,
+    который вернул репозиторий (не больше одного дополнительного COUNT-запроса).
+     */
+    @GetMapping("/ships/page")
+    public ResponseEntity<ShipsPage> findPage(@ModelAttribute ShipFilter filter,
+                                              @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                                              @RequestParam(value = "pageNumber", required = false, defaultValue = "0") Integer pageNumber,
+                                              @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                              WebRequest request) {
+        if (isNotModified(request)) {
+            return null;
+        }
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, Sort.by(order.getFieldName()));
+
+        Page<ShipView> page = shipService.getShipsList(filter, pageable);
+
+        return new ResponseEntity<>(new ShipsPage(page.getContent(), page.getTotalElements()), HttpStatus.OK);
+    }
+
+    // метод получения страницы по курсору (Get ships slice, keyset pagination)
+    /*
+    Вместо pageNumber клиент передаёт cursor из поля next предыдущего ответа (для первой страницы cursor не указывается).
+    Следующая страница выбирается условием "после последнего корабля" по полю сортировки order и id,
+    поэтому время ответа не зависит от глубины страницы. Если next == null - страниц больше нет.
+     */
+    @GetMapping("/ships/seek")
+    public ResponseEntity<ShipsSlice> findSlice(@ModelAttribute ShipFilter filter,
+                                                @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                                                @RequestParam(value = "pageSize", required = false, defaultValue = "3") Integer pageSize,
+                                                @RequestParam(value = "cursor", required = false) String cursor) {
+        if (pageSize < 1 || pageSize > MAX_SLICE_SIZE) {
+            throw new BadRequestException();
+        }
+        String fieldName = order.getFieldName();
+        ShipCursor after = cursor == null ? null : ShipCursor.decode(cursor, fieldName);
+
+        Specification<EntityShip> specification = shipService.selectByFilter(filter);
+        // запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        List<EntityShip> ships = shipService.getShipsAfter(specification, fieldName, after, pageSize + 1);
+
+        String next = null;
+        if (ships.size() > pageSize) {
+            ships = ships.subList(0, pageSize);
+            next = ShipCursor.after(fieldName, ships.get(pageSize - 1)).encode();
+        }
+
+        return new ResponseEntity<>(new ShipsSlice(ships, next), HttpStatus.OK);
+    }
+
+    // метод потоковой выгрузки всех кораблей под фильтром (Export ships)
+    /*
+    Принимает те же фильтры и order, что и GET /rest/ships, но без пейджинга: отдаёт все подходящие корабли
+    в формате NDJSON (по умолчанию, один JSON-объект на строку) или CSV (format=csv).
+    Корабли читаются курсором БД и сразу пишутся в поток ответа, поэтому память не зависит от размера выгрузки.
+     */
+    @GetMapping("/ships/export")
+    public void exportShips(@ModelAttribute ShipFilter filter,
+                            @RequestParam(value = "order", required = false, defaultValue = "ID") ShipOrder order,
+                            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        boolean csv;
+        if ("ndjson".equals(format)) {
+            csv = false;
+        } else if ("csv".equals(format)) {
+            csv = true;
+        } else {
+            throw new BadRequestException();
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"ships." + format + "\"");
+
+        try (ShipExportWriter writer = csv
+                ? ShipExportWriter.csv(response.getOutputStream())
+                : ShipExportWriter.ndjson(objectMapper, response.getOutputStream())) {
+            shipService.exportShips(filter, order.getFieldName(), writer);
+        }
+    }
+
+    // метод потоковой загрузки кораблей (Import ships)
+    /*
+    Тело запроса - NDJSON (по умолчанию, один корабль в формате POST /rest/ships на строку) или CSV (format=csv,
+    с заголовком как у GET /rest/ships/export?format=csv). Тело не буферизуется: строки читаются по одной
+    и записываются в БД пачками, каждая строка проверяется по правилам создания корабля.
+    В ответе - количество принятых и отклонённых строк, номера отклонённых строк и скорость загрузки.
+     */
+    @PostMapping("/ships/import")
+    public ResponseEntity<ShipImportResult> importShips(@RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+                                                        HttpServletRequest request) throws IOException {
+        ShipImportReader reader;
+        if ("ndjson".equals(format)) {
+            reader = ShipImportReader.ndjson(objectMapper, request.getInputStream());
+        } else if ("csv".equals(format)) {
+            reader = ShipImportReader.csv(request.getInputStream());
+        } else {
+            throw new BadRequestException();
+        }
+
+        try {
+            return new ResponseEntity<>(shipService.importShips(reader), HttpStatus.OK);
+        } finally {
+            reader.close();
+        }
     }
 
     // метод создания экземпляра (Create ship)
@@ -124,26 +237,36 @@ public class ShipController {
     }
 
     // метод получения экземпляра по id (Get ship)
+    /*
+    В ответе - ETag с id и версией корабля. Если клиент прислал его в If-None-Match и корабль не менялся,
+    Spring отвечает 304 без тела: корабль берётся из ShipCache (без БД) и не сериализуется.
+     */
     @GetMapping("/ships/{id}")
-    public ResponseEntity<EntityShip> getShipById(@PathVariable String id) {
-        EntityShip responseShip;
+    public ResponseEntity<ShipView> getShipById(@PathVariable String id) {
+        ShipView responseShip;
 
         Long longId = shipService.checkId(id);
         responseShip = shipService.getShip(longId);
 
-        return new ResponseEntity<>(responseShip, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ShipETag.of(responseShip)).body(responseShip);
     }
 
     // метод обновления экземпляра (Update ship)
+    /*
+    If-Match с ETag из GET /rest/ships/{id} - изменить, только если корабль с тех пор не менялся (иначе 412).
+    Без If-Match корабль всё равно не затрёт параллельное изменение: такая запись отклоняется с кодом 409.
+    В ответе - ETag новой версии.
+     */
     @PostMapping("/ships/{id}")
     public ResponseEntity<EntityShip> updateShip(@PathVariable String id,
-                                           @RequestBody EntityShip entityShip) {
+                                           @RequestBody EntityShip entityShip,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         EntityShip responseShip;
 
         Long longId = shipService.checkId(id);
-        responseShip = this.shipService.updateShip(longId, entityShip);
+        responseShip = this.shipService.updateShip(longId, entityShip, ShipETag.expectedVersion(longId, ifMatch));
 
-        return new ResponseEntity<>(responseShip, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(ShipETag.of(responseShip)).body(responseShip);
     }
 
     // метод удаления экземпляра по id (Delete ship)
@@ -156,4 +279,47 @@ public class ShipController {
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    // методы массовых операций (Bulk create / update / delete)
+    /*
+    Принимают массив кораблей (или id) и обрабатывают его за один запрос и одну транзакцию.
+    Каждая запись проверяется по тем же правилам, что и в одиночных методах;
+    некорректные записи не прерывают операцию, а попадают в отчёт со своим статусом (400 или 404).
+     */
+    @PostMapping("/ships/bulk")
+    public ResponseEntity<ShipBulkResult> createShips(@RequestBody List<EntityShip> ships) {
+        return new ResponseEntity<>(shipService.createShips(ships), HttpStatus.OK);
+    }
+
+    @PostMapping("/ships/bulk/update")
+    public ResponseEntity<ShipBulkResult> updateShips(@RequestBody List<EntityShip> ships) {
+        return new ResponseEntity<>(shipService.updateShips(ships), HttpStatus.OK);
+    }
+
+    @PostMapping("/ships/bulk/delete")
+    public ResponseEntity<ShipBulkResult> deleteShips(@RequestBody List<Long> ids) {
+        return new ResponseEntity<>(shipService.deleteShips(ids), HttpStatus.OK);
+    }
+
+    // методы пересчёта рейтингов (Recompute ratings)
+    /*
+    Пересчитывают рейтинг всех кораблей в БД по текущим параметрам ship.rating.* (например, после смены текущего года).
+    POST запускает пересчёт в фоне и сразу отвечает 202 с его ходом; если пересчёт уже идёт, новый не запускается.
+    GET возвращает ход текущего или последнего пересчёта: состояние, сколько кораблей просмотрено и изменено.
+     */
+    @PostMapping("/ships/ratings/recompute")
+    public ResponseEntity<ShipRatingProgress> recomputeRatings() {
+        return new ResponseEntity<>(shipService.recomputeRatings(), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/ships/ratings/recompute")
+    public ResponseEntity<ShipRatingProgress> getRatingProgress() {
+        return new ResponseEntity<>(shipService.getRatingProgress(), HttpStatus.OK);
+    }
+
+    // Условный GET списков: ETag - версия данных (ShipETag). Если If-None-Match совпал, ответ 304 уже подготовлен
+    // и обработчик возвращает null - без запроса к БД и без сериализации. Иначе ETag уже записан в ответ.
+    private boolean isNotModified(WebRequest request) {
+        return request.checkNotModified(shipService.getDataVersion());
+    }
+
 }
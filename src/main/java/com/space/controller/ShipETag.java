@@ -0,0 +1,55 @@
+package com.space.controller;
+
+/*
+ ETag ресурсов кораблей.
+ Корабль: "<id>.<version>" - версия хранится в БД и увеличивается при каждом изменении (EntityShip.version),
+ поэтому ETag не зависит от перезапуска приложения и одинаков на всех его экземплярах.
+ Списки (GET /rest/ships, /count, /page, /stats): номер поколения данных ShipQueryCache.getDataVersion();
+ запрос входит в URL ресурса, поэтому фильтр в ETag не нужен.
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipView;
+import exceptions.PreconditionFailedException;
+
+final class ShipETag {
+
+    private ShipETag() {
+    }
+
+    // null - версия корабля неизвестна, ETag не отдаётся
+    static String of(ShipView ship) {
+        return ship.hasVersion() ? ship.getId() + "." + ship.getVersion() : null;
+    }
+
+    static String of(EntityShip ship) {
+        return ship.getVersion() == null ? null : ship.getId() + "." + ship.getVersion();
+    }
+
+    /*
+    Версия корабля из заголовка If-Match: null - заголовка нет или это "*" (подходит любая версия).
+    Слабые ETag (W/"...") при If-Match не сравниваются, как и ETag чужого корабля:
+    если в заголовке нет ни одного подходящего, изменение невозможно - 412.
+     */
+    static Long expectedVersion(long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = id + ".";
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+                continue;
+            }
+            tag = tag.substring(1, tag.length() - 1);
+            if (tag.startsWith(prefix)) {
+                try {
+                    return Long.parseLong(tag.substring(prefix.length()));
+                } catch (NumberFormatException e) {
+                    // не наш формат - проверяем следующий
+                }
+            }
+        }
+        throw new PreconditionFailedException();
+    }
+}
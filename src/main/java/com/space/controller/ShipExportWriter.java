@@ -0,0 +1,124 @@
+package com.space.controller;
+
+/*
+ Запись кораблей в поток ответа для GET /rest/ships/export.
+ Каждый корабль пишется сразу, как только прочитан из курсора БД, поэтому в памяти не накапливается
+ ни список кораблей, ни весь ответ. Буферизацию и сброс в сеть берёт на себя поток ответа сервлета.
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.space.model.EntityShip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+public abstract class ShipExportWriter implements Consumer<EntityShip>, Closeable {
+
+    static final String CSV_HEADER = "id,name,planet,shipType,prodDate,isUsed,speed,crewSize,rating";
+
+    public static ShipExportWriter ndjson(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        return new NdjsonWriter(objectMapper, out);
+    }
+
+    public static ShipExportWriter csv(OutputStream out) throws IOException {
+        return new CsvWriter(out);
+    }
+
+    @Override
+    public void accept(EntityShip ship) {
+        try {
+            write(ship);
+        } catch (IOException e) {
+            // клиент оборвал соединение - прерываем чтение курсора
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract void write(EntityShip ship) throws IOException;
+
+    // Одна строка - один JSON-объект корабля в том же виде, что и в GET /rest/ships.
+    private static class NdjsonWriter extends ShipExportWriter {
+
+        private final ObjectWriter objectWriter;
+        private final JsonGenerator generator;
+
+        NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+            // без flush после каждого корабля: в сеть уходят заполненные буферы, а не отдельные строки
+            this.objectWriter = objectMapper.writerFor(EntityShip.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(EntityShip ship) throws IOException {
+            objectWriter.writeValue(generator, ship);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    // CSV с заголовком; prodDate - миллисекунды, как в JSON. Строки экранируются по RFC 4180.
+    private static class CsvWriter extends ShipExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            this.writer.write(CSV_HEADER);
+            this.writer.write("\r\n");
+        }
+
+        @Override
+        protected void write(EntityShip ship) throws IOException {
+            writer.write(String.valueOf(ship.getId()));
+            writer.write(',');
+            writeText(ship.getName());
+            writer.write(',');
+            writeText(ship.getPlanet());
+            writer.write(',');
+            writer.write(String.valueOf(ship.getShipType()));
+            writer.write(',');
+            writer.write(ship.getProdDate() == null ? "" : String.valueOf(ship.getProdDate().getTime()));
+            writer.write(',');
+            writer.write(String.valueOf(ship.getUsed()));
+            writer.write(',');
+            writer.write(String.valueOf(ship.getSpeed()));
+            writer.write(',');
+            writer.write(String.valueOf(ship.getCrewSize()));
+            writer.write(',');
+            writer.write(String.valueOf(ship.getRating()));
+            writer.write("\r\n");
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
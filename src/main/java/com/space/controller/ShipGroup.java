@@ -0,0 +1,20 @@
+package com.space.controller;
+
+// поле группировки GET /rest/ships/stats (параметр groupBy)
+public enum ShipGroup {
+    NONE(null), // default: одна группа из всех кораблей под фильтром
+    PLANET("planet"),
+    SHIP_TYPE("shipType"),
+    USED("isUsed"),
+    YEAR("year"); // год prodDate
+
+    private String fieldName;
+
+    ShipGroup(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+}
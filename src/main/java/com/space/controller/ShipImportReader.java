@@ -0,0 +1,216 @@
+package com.space.controller;
+
+/*
+ Чтение кораблей из тела запроса POST /rest/ships/import (пара к ShipExportWriter).
+ Тело читается по одной записи прямо из потока запроса, поэтому в памяти находится только текущая строка;
+ пока сервис записывает очередную пачку в БД, чтение не продолжается и клиент притормаживается самим TCP.
+ Запись, которую не удалось разобрать, возвращается как null - сервис отклоняет её так же, как некорректный корабль.
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.space.model.EntityShip;
+import com.space.model.ShipType;
+import exceptions.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public abstract class ShipImportReader implements Iterator<EntityShip>, Closeable {
+
+    protected final BufferedReader reader;
+
+    private String record;
+    private boolean finished;
+
+    protected ShipImportReader(InputStream in) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public static ShipImportReader ndjson(ObjectMapper objectMapper, InputStream in) {
+        return new NdjsonReader(objectMapper, in);
+    }
+
+    public static ShipImportReader csv(InputStream in) throws IOException {
+        return new CsvReader(in);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (record == null && !finished) {
+            try {
+                record = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = record == null;
+        }
+        return record != null;
+    }
+
+    @Override
+    public EntityShip next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String current = record;
+        record = null;
+        try {
+            return parse(current);
+        } catch (RuntimeException | IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Следующая непустая запись или null, если поток закончился.
+    protected abstract String readRecord() throws IOException;
+
+    protected abstract EntityShip parse(String record) throws IOException;
+
+    // Одна строка - один JSON-объект корабля в том же формате, что принимает POST /rest/ships.
+    private static class NdjsonReader extends ShipImportReader {
+
+        private final ObjectReader objectReader;
+
+        NdjsonReader(ObjectMapper objectMapper, InputStream in) {
+            super(in);
+            this.objectReader = objectMapper.readerFor(EntityShip.class);
+        }
+
+        @Override
+        protected String readRecord() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.trim().isEmpty());
+            return line;
+        }
+
+        @Override
+        protected EntityShip parse(String record) throws IOException {
+            return objectReader.readValue(record);
+        }
+    }
+
+    // CSV с заголовком (RFC 4180), колонки ищутся по именам из заголовка, поэтому порядок может быть любым
+    // и файл GET /rest/ships/export?format=csv загружается обратно без изменений. prodDate - миллисекунды.
+    private static class CsvReader extends ShipImportReader {
+
+        private final int[] columns = new int[7];
+
+        CsvReader(InputStream in) throws IOException {
+            super(in);
+            String header = readRecord();
+            if (header == null) {
+                throw new BadRequestException();
+            }
+            List<String> names = split(header);
+            String[] required = {"name", "planet", "shipType", "prodDate", "isUsed", "speed", "crewSize"};
+            for (int i = 0; i < required.length; i++) {
+                columns[i] = names.indexOf(required[i]);
+                if (columns[i] < 0 && !required[i].equals("isUsed")) {
+                    throw new BadRequestException();
+                }
+            }
+        }
+
+        @Override
+        protected String readRecord() throws IOException {
+            StringBuilder record = new StringBuilder();
+            boolean quoted = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if ((c == '\n' || c == '\r') && !quoted) {
+                    if (record.length() > 0) {
+                        return record.toString();
+                    }
+                    continue;
+                }
+                record.append((char) c);
+            }
+            return record.length() > 0 ? record.toString() : null;
+        }
+
+        @Override
+        protected EntityShip parse(String record) {
+            List<String> values = split(record);
+            EntityShip ship = new EntityShip();
+            ship.setName(value(values, 0));
+            ship.setPlanet(value(values, 1));
+            String shipType = value(values, 2);
+            ship.setShipType(shipType == null ? null : ShipType.valueOf(shipType));
+            String prodDate = value(values, 3);
+            ship.setProdDate(prodDate == null ? null : new Date(Long.parseLong(prodDate)));
+            String isUsed = value(values, 4);
+            ship.setUsed(isUsed == null ? null : parseBoolean(isUsed));
+            String speed = value(values, 5);
+            ship.setSpeed(speed == null ? null : Double.valueOf(speed));
+            String crewSize = value(values, 6);
+            ship.setCrewSize(crewSize == null ? null : Integer.valueOf(crewSize));
+            return ship;
+        }
+
+        private String value(List<String> values, int column) {
+            int index = columns[column];
+            if (index < 0 || index >= values.size() || values.get(index).isEmpty()) {
+                return null;
+            }
+            return values.get(index);
+        }
+
+        private static Boolean parseBoolean(String value) {
+            if (value.equals("true")) {
+                return true;
+            }
+            if (value.equals("false")) {
+                return false;
+            }
+            throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+
+        private static List<String> split(String record) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
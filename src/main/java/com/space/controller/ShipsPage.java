@@ -0,0 +1,25 @@
+package com.space.controller;
+
+import com.space.model.ShipView;
+
+import java.util.List;
+
+// Ответ GET /rest/ships/page: содержимое страницы и общее количество кораблей, подходящих под фильтры.
+
+public class ShipsPage {
+    private final List<ShipView> content;
+    private final long count;
+
+    public ShipsPage(List<ShipView> content, long count) {
+        this.content = content;
+        this.count = count;
+    }
+
+    public List<ShipView> getContent() {
+        return content;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
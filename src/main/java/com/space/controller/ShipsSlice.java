@@ -0,0 +1,25 @@
+package com.space.controller;
+
+import com.space.model.EntityShip;
+
+import java.util.List;
+
+// Ответ GET /rest/ships/seek: содержимое страницы и курсор следующей страницы (null, если это последняя страница).
+
+public class ShipsSlice {
+    private final List<EntityShip> content;
+    private final String next;
+
+    public ShipsSlice(List<EntityShip> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<EntityShip> getContent() {
+        return content;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,68 @@
+package com.space.controller;
+
+// служебные REST-методы для наблюдения за работой приложения (кеши и т.п.)
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.space.metrics.ShipMetrics;
+import io.prometheus.client.exporter.common.TextFormat;
+import com.space.service.ShipCache;
+import com.space.service.ShipQueryCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/rest/stats")
+public class StatsController {
+
+    private final ShipCache shipCache;
+    private final ShipQueryCache shipQueryCache;
+    private final ShipMetrics shipMetrics;
+
+    public StatsController(ShipCache shipCache, ShipQueryCache shipQueryCache, ShipMetrics shipMetrics) {
+        this.shipCache = shipCache;
+        this.shipQueryCache = shipQueryCache;
+        this.shipMetrics = shipMetrics;
+    }
+
+    // все метрики (ShipMetrics, пул соединений, JVM) в текстовом формате Prometheus для периодического опроса
+    @GetMapping("/prometheus")
+    public void getPrometheusMetrics(HttpServletResponse response) throws IOException {
+        response.setContentType(TextFormat.CONTENT_TYPE_004);
+        response.getWriter().write(shipMetrics.scrape());
+    }
+
+    // статистика кеша GET /rest/ships/{id}: попадания, промахи, вытеснения
+    @GetMapping("/ship-cache")
+    public ResponseEntity<Map<String, Object>> getShipCacheStats() {
+        return new ResponseEntity<>(toMap(shipCache.size(), shipCache.stats()), HttpStatus.OK);
+    }
+
+    // статистика кеша результатов GET /rest/ships и GET /rest/ships/count
+    @GetMapping("/query-cache")
+    public ResponseEntity<Map<String, Object>> getQueryCacheStats() {
+        Map<String, Object> response = toMap(shipQueryCache.size(), shipQueryCache.stats());
+        response.put("generation", shipQueryCache.getGeneration());
+
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    private Map<String, Object> toMap(long size, CacheStats stats) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("size", size);
+        response.put("hitCount", stats.hitCount());
+        response.put("missCount", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictionCount", stats.evictionCount());
+        response.put("loadSuccessCount", stats.loadSuccessCount());
+        response.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return response;
+    }
+}
@@ -0,0 +1,140 @@
+package com.space.metrics;
+
+/*
+ DataSource, который замеряет выполнение SQL: соединения и выражения оборачиваются динамическими прокси,
+ и каждый вызов execute* (executeQuery, executeUpdate, executeBatch...) сообщается в ShipMetrics (слой db, число SQL).
+ ResultSet не оборачивается, чтобы не добавлять накладных расходов на каждую строку и колонку:
+ чтение строк после выполнения запроса относится к слою hydration.
+ Если включён QueryLog, запоминаются текст выражения (из prepareStatement или execute(sql)) и значения параметров
+ из set*(индекс, значение, ...), и выполненное выражение передаётся в журнал.
+ equals/hashCode у прокси - по ссылке на сам прокси: Hibernate хранит выражения в HashMap и ищет их тем же прокси.
+ */
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeteredDataSource extends DelegatingDataSource implements Closeable {
+
+    private final ShipMetrics shipMetrics;
+    private final QueryLog queryLog;
+
+    public MeteredDataSource(DataSource target, ShipMetrics shipMetrics, QueryLog queryLog) {
+        super(target);
+        this.shipMetrics = shipMetrics;
+        this.queryLog = queryLog;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return meteredConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return meteredConnection(super.getConnection(username, password));
+    }
+
+    // Пул закрывается вместе с контекстом (Spring вызывает close у бина dataSource).
+    @Override
+    public void close() throws IOException {
+        DataSource target = getTargetDataSource();
+        if (target instanceof Closeable) {
+            ((Closeable) target).close();
+        }
+    }
+
+    private Connection meteredConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(proxy, connection, method, args);
+                    // prepareStatement, prepareCall, createStatement
+                    if (result instanceof Statement && method.getReturnType().isInterface()) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return queryLog.isEnabled()
+                                ? loggedStatement((Statement) result, method.getReturnType(), sql)
+                                : meteredStatement((Statement) result, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private Object meteredStatement(Statement statement, Class<?> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(proxy, statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(proxy, statement, method, args);
+            } finally {
+                shipMetrics.statementExecuted(System.nanoTime() - start);
+            }
+        };
+        return Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    // Как meteredStatement, но ещё запоминает параметры и передаёт выполненные выражения в QueryLog.
+    // Выражение используется одним потоком, поэтому состояние обработчика не синхронизируется.
+    private Object loggedStatement(Statement statement, Class<?> type, String preparedSql) {
+        List<Object> parameters = new ArrayList<>();
+        int[] batchSize = {0};
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                int index = (Integer) args[0] - 1;
+                while (parameters.size() <= index) {
+                    parameters.add(null);
+                }
+                parameters.set(index, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batchSize[0]++;
+            } else if (name.equals("clearBatch")) {
+                batchSize[0] = 0;
+            }
+            if (!name.startsWith("execute")) {
+                return invoke(proxy, statement, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return invoke(proxy, statement, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                shipMetrics.statementExecuted(nanos);
+                queryLog.executed(sql, new ArrayList<>(parameters), name.endsWith("Batch") ? batchSize[0] : 0, nanos);
+                if (name.endsWith("Batch")) {
+                    batchSize[0] = 0;
+                }
+            }
+        };
+        return Proxy.newProxyInstance(MeteredDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+            return proxy == args[0];
+        }
+        if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.space.metrics;
+
+/*
+ Конвертер JSON для REST (WebConfig) с замером слоёв parse (чтение тела запроса) и serialize (запись ответа).
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+public class MeteredJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ShipMetrics shipMetrics;
+
+    public MeteredJackson2HttpMessageConverter(ObjectMapper objectMapper, ShipMetrics shipMetrics) {
+        super(objectMapper);
+        this.shipMetrics = shipMetrics;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.read(type, contextClass, inputMessage);
+        } finally {
+            shipMetrics.record(ShipMetrics.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return super.readInternal(clazz, inputMessage);
+        } finally {
+            shipMetrics.record(ShipMetrics.PARSE, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            shipMetrics.record(ShipMetrics.SERIALIZE, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.space.metrics;
+
+/*
+ Журнал SQL-выражений запроса (db.query-log.*): MeteredDataSource сообщает каждое выполненное выражение
+ с параметрами и временем, QueryLogInterceptor собирает их от начала до конца HTTP-запроса.
+ - Выражения дольше slow-threshold-ms пишутся в лог сразу (WARN), в том числе вне HTTP-запросов.
+ - По завершении запроса ищутся лишние обращения к БД (problems):
+   повтор - то же выражение с теми же параметрами больше одного раза;
+   повторное чтение - разные SELECT одной строки по id (existsById + findById, findById + save вне транзакции);
+   N+1 - один SELECT по id с разными id не меньше n-plus-one-threshold раз (выборка по одной строке в цикле).
+ Пакеты executeBatch не проверяются: пакетные INSERT/UPDATE пачками по db.batch-size повторяются по замыслу.
+ Список выражений запроса кладётся в атрибут STATEMENTS_ATTRIBUTE - по нему тесты проверяют бюджет запросов.
+ В запросе хранится не больше max-statements выражений (потоковый импорт выполняет их тысячи).
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class QueryLog {
+
+    public static final String STATEMENTS_ATTRIBUTE = QueryLog.class.getName() + ".statements";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryLog.class);
+
+    // select ... from ship entityship0_ where entityship0_.id=?
+    private static final Pattern SELECT_BY_ID = Pattern.compile(
+            "^\\s*select\\b.*?\\bfrom\\s+(\\w+)\\s+\\w+\\s+where\\s+\\w+\\.id\\s*=\\s*\\?\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final ThreadLocal<Statements> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final int nPlusOneThreshold;
+    private final int maxStatements;
+
+    public QueryLog(boolean enabled, long slowThresholdMillis, int nPlusOneThreshold, int maxStatements) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxStatements = maxStatements;
+    }
+
+    // false - MeteredDataSource не запоминает текст и параметры выражений
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Выполненное выражение; parameters - значения параметров по порядку (для пакета - параметры последней строки).
+    public void executed(String sql, List<Object> parameters, int batchSize, long nanos) {
+        if (nanos >= slowThresholdNanos) {
+            LOGGER.warn("Slow SQL ({} ms): {} {}", TimeUnit.NANOSECONDS.toMillis(nanos), sql, parameters);
+        }
+        Statements statements = CURRENT.get();
+        if (statements != null) {
+            if (statements.list.size() < maxStatements) {
+                statements.list.add(new Statement(sql, parameters, batchSize, nanos));
+            } else {
+                statements.dropped++;
+            }
+        }
+    }
+
+    // Начало HTTP-запроса: с этого момента выражения текущего потока запоминаются.
+    public void begin() {
+        if (enabled) {
+            CURRENT.set(new Statements());
+        }
+    }
+
+    // Конец HTTP-запроса: выражения запроса (пустой список, если журнал выключен); о лишних обращениях к БД пишет в лог.
+    public List<Statement> end(String request) {
+        Statements statements = CURRENT.get();
+        CURRENT.remove();
+        if (statements == null) {
+            return Collections.emptyList();
+        }
+        for (String problem : problems(statements.list, nPlusOneThreshold)) {
+            LOGGER.warn("{}: {}", request, problem);
+        }
+        if (statements.dropped > 0) {
+            LOGGER.warn("{}: {} SQL statements executed, only the first {} were logged", request,
+                    statements.list.size() + statements.dropped, statements.list.size());
+        }
+        return statements.list;
+    }
+
+    // Лишние обращения к БД среди выражений одного запроса (описания для лога и сообщений тестов).
+    public static List<String> problems(List<Statement> statements, int nPlusOneThreshold) {
+        Map<String, List<Statement>> bySql = new LinkedHashMap<>();
+        Map<String, Set<String>> rowReads = new LinkedHashMap<>();
+        for (Statement statement : statements) {
+            if (statement.getBatchSize() > 0) {
+                continue;
+            }
+            bySql.computeIfAbsent(statement.getSql(), sql -> new ArrayList<>()).add(statement);
+            String row = statement.getRow();
+            if (row != null) {
+                rowReads.computeIfAbsent(row, key -> new HashSet<>()).add(statement.getSql());
+            }
+        }
+
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, List<Statement>> entry : bySql.entrySet()) {
+            Map<List<Object>, Integer> byParameters = new HashMap<>();
+            for (Statement statement : entry.getValue()) {
+                byParameters.merge(statement.getParameters(), 1, Integer::sum);
+            }
+            for (Map.Entry<List<Object>, Integer> repeated : byParameters.entrySet()) {
+                if (repeated.getValue() > 1) {
+                    problems.add(String.format("repeated (%d times): %s %s", repeated.getValue(), entry.getKey(), repeated.getKey()));
+                }
+            }
+            if (byParameters.size() >= nPlusOneThreshold && entry.getValue().get(0).getRow() != null) {
+                problems.add(String.format("N+1 (%d times with different parameters): %s", byParameters.size(), entry.getKey()));
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : rowReads.entrySet()) {
+            if (entry.getValue().size() > 1) {
+                problems.add(String.format("row %s read again: %s", entry.getKey(), entry.getValue()));
+            }
+        }
+        return problems;
+    }
+
+    public static class Statement {
+        private final String sql;
+        private final List<Object> parameters;
+        private final int batchSize;
+        private final long nanos;
+
+        Statement(String sql, List<Object> parameters, int batchSize, long nanos) {
+            this.sql = sql;
+            this.parameters = parameters;
+            this.batchSize = batchSize;
+            this.nanos = nanos;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public List<Object> getParameters() {
+            return parameters;
+        }
+
+        // строк в пакете executeBatch, для остальных выражений 0
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        // "ship#14" для SELECT одной строки по id, иначе null
+        String getRow() {
+            if (parameters.size() != 1) {
+                return null;
+            }
+            Matcher matcher = SELECT_BY_ID.matcher(sql);
+            return matcher.matches() ? matcher.group(1).toLowerCase(Locale.ROOT) + "#" + Objects.toString(parameters.get(0)) : null;
+        }
+
+        @Override
+        public String toString() {
+            return sql + " " + parameters + (batchSize > 0 ? " x" + batchSize : "")
+                    + " (" + TimeUnit.NANOSECONDS.toMicros(nanos) + " us)";
+        }
+    }
+
+    private static class Statements {
+        final List<Statement> list = new ArrayList<>();
+        int dropped;
+    }
+}
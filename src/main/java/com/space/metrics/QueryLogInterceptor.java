@@ -0,0 +1,34 @@
+package com.space.metrics;
+
+/*
+ Границы запроса для QueryLog: выражения собираются от выбора обработчика до записи ответа,
+ список кладётся в атрибут запроса QueryLog.STATEMENTS_ATTRIBUTE, лишние обращения к БД пишутся в лог.
+ */
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class QueryLogInterceptor implements HandlerInterceptor {
+
+    private final QueryLog queryLog;
+
+    public QueryLogInterceptor(QueryLog queryLog) {
+        this.queryLog = queryLog;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        queryLog.begin();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : request.getRequestURI();
+        request.setAttribute(QueryLog.STATEMENTS_ATTRIBUTE, queryLog.end(request.getMethod() + " " + uri));
+    }
+}
@@ -0,0 +1,51 @@
+package com.space.metrics;
+
+/*
+ Добавляет в прокси репозиториев Spring Data замер слоя hydration: время вызова метода репозитория
+ за вычетом выполнения SQL (слой db) и построения условий (слой specification) внутри этого вызова.
+ scroll не замеряется: он передаёт сущности в consumer по мере чтения, и в его время попала бы
+ работа вызывающего кода (например, запись экспорта в сеть).
+ */
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    // ShipMetrics берётся при первом вызове: post-processor создаётся раньше остальных бинов
+    private final ObjectProvider<ShipMetrics> shipMetrics;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<ShipMetrics> shipMetrics) {
+        this.shipMetrics = shipMetrics;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof Repository && bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, (MethodInterceptor) this::invoke);
+        }
+        return bean;
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        if (invocation.getMethod().getName().equals("scroll")) {
+            return invocation.proceed();
+        }
+        ShipMetrics metrics = shipMetrics.getObject();
+        long dbNanos = metrics.threadDbNanos();
+        long specificationNanos = metrics.threadSpecificationNanos();
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start
+                    - (metrics.threadDbNanos() - dbNanos)
+                    - (metrics.threadSpecificationNanos() - specificationNanos);
+            metrics.record(ShipMetrics.HYDRATION, Math.max(0, elapsed));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.space.metrics;
+
+/*
+ Время каждого запроса к контроллерам (от выбора обработчика до записи ответа) и число SQL-выражений в нём.
+ Исключения вроде BadRequestException превращаются в ответ обработчиком @ResponseStatus, и в afterCompletion
+ уже не передаются - поэтому первым в цепочке HandlerExceptionResolver стоит exposeException (WebConfig),
+ который только запоминает исключение в атрибуте запроса.
+ */
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+    private static final String STATEMENTS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".statements";
+    private static final String EXCEPTION_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".exception";
+
+    private final ShipMetrics shipMetrics;
+
+    public RequestMetricsInterceptor(ShipMetrics shipMetrics) {
+        this.shipMetrics = shipMetrics;
+    }
+
+    // HandlerExceptionResolver: запоминает исключение и передаёт его следующим обработчикам.
+    public static ModelAndView exposeException(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        request.setAttribute(EXCEPTION_ATTRIBUTE, ex);
+        return null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(STATEMENTS_ATTRIBUTE, shipMetrics.threadStatements());
+        request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Long start = (Long) request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        long statements = shipMetrics.threadStatements() - (Long) request.getAttribute(STATEMENTS_ATTRIBUTE);
+
+        String uri = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Throwable exception = ex != null ? ex : (Throwable) request.getAttribute(EXCEPTION_ATTRIBUTE);
+        // необработанное исключение контейнер превратит в 500 уже после нас
+        int status = ex != null && response.getStatus() < 400 ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+
+        shipMetrics.request(request.getMethod(), uri == null ? "UNKNOWN" : uri, status,
+                exception == null ? ShipMetrics.NO_EXCEPTION : exception.getClass().getSimpleName(), elapsed, statements);
+    }
+}
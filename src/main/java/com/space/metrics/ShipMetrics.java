@@ -0,0 +1,128 @@
+package com.space.metrics;
+
+/*
+ Метрики приложения в формате Prometheus (GET /rest/stats/prometheus).
+ ship.http.requests - время запросов по методу, шаблону URI, статусу и исключению: p50/p99/p999 этого экземпляра
+ и гистограмма для агрегации по нескольким экземплярам; ship.http.requests.statements - число SQL-выражений на запрос;
+ ship.http.errors - ответы с исключением по его типу (BadRequestException, NotFoundException...).
+ ship.layer - время по слоям:
+   parse - чтение тела запроса из JSON,
+   specification - построение условий фильтра (Specification.toPredicate),
+   db - выполнение SQL драйвером (MeteredDataSource),
+   hydration - остальное время вызова репозитория: Hibernate строит запрос, читает строки и собирает сущности,
+   serialize - запись ответа в JSON.
+ Число SQL и время в БД копятся в счётчиках текущего потока (ThreadLocal, без синхронизации): запрос и все его
+ обращения к БД выполняются в одном потоке, а значения для запроса и для слоя hydration - разности этих счётчиков.
+ Плюс стандартные метрики пула HikariCP и JVM (память, потоки, CPU).
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ShipMetrics {
+
+    public static final String PARSE = "parse";
+    public static final String SPECIFICATION = "specification";
+    public static final String DB = "db";
+    public static final String HYDRATION = "hydration";
+    public static final String SERIALIZE = "serialize";
+
+    // значение тега exception для запросов без исключения
+    public static final String NO_EXCEPTION = "None";
+
+    private static final ThreadLocal<Usage> USAGE = ThreadLocal.withInitial(Usage::new);
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> layers = new HashMap<>();
+
+    public ShipMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (String layer : new String[]{PARSE, SPECIFICATION, DB, HYDRATION, SERIALIZE}) {
+            layers.put(layer, Timer.builder("ship.layer")
+                    .tag("layer", layer)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(registry));
+        }
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public void record(String layer, long nanos) {
+        layers.get(layer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Драйвер выполнил SQL-выражение (или пакет) за nanos.
+    public void statementExecuted(long nanos) {
+        Usage usage = USAGE.get();
+        usage.statements++;
+        usage.dbNanos += nanos;
+        record(DB, nanos);
+    }
+
+    public void specificationBuilt(long nanos) {
+        USAGE.get().specificationNanos += nanos;
+        record(SPECIFICATION, nanos);
+    }
+
+    // Накопленные значения счётчиков текущего потока - сами по себе смысла не имеют, только разности.
+    public long threadStatements() {
+        return USAGE.get().statements;
+    }
+
+    public long threadDbNanos() {
+        return USAGE.get().dbNanos;
+    }
+
+    public long threadSpecificationNanos() {
+        return USAGE.get().specificationNanos;
+    }
+
+    // Завершённый HTTP-запрос; uri - шаблон обработчика ("/rest/ships/{id}"), чтобы число рядов метрик было ограничено.
+    public void request(String method, String uri, int status, String exception, long nanos, long statements) {
+        Timer.builder("ship.http.requests")
+                .tags("method", method, "uri", uri, "status", Integer.toString(status), "exception", exception)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("ship.http.requests.statements")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(statements);
+        if (!NO_EXCEPTION.equals(exception)) {
+            Counter.builder("ship.http.errors")
+                    .tags("uri", uri, "exception", exception)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    // Текст для Prometheus (text format 0.0.4).
+    public String scrape() {
+        return registry instanceof PrometheusMeterRegistry ? ((PrometheusMeterRegistry) registry).scrape() : "";
+    }
+
+    private static class Usage {
+        long statements;
+        long dbNanos;
+        long specificationNanos;
+    }
+}
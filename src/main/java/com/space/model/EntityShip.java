@@ -2,11 +2,15 @@ package com.space.model;
 
 //
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import javax.persistence.*;
 import java.util.Date;
 
 @Entity     // данной анотацией указываем, что этот класс будет описывать сущность
 @Table(name = "ship")   // здесь указываем ссылку на название таблицы из БД "cosmoport"
+@JsonSerialize(using = EntityShipSerializer.class)   // JSON пишется без рефлексии; читается по-прежнему по полям
 public class EntityShip {
     @Id     // Аннотация @Id наследуется от javax.persistence.Id , указывая, что поле элемента ниже является первичным ключом текущей сущности.
     @Column(name = "id") // аннотирование используется для указания соответствия между атрибутом базовой сущности (Entity класса) и столбцом таблицы базы данных.
@@ -38,6 +42,11 @@ public class EntityShip {
     @Column(name = "rating")
     private Double rating;  // Рейтинг корабля. Используй математическое округление до сотых.
 
+    @Version    // Hibernate увеличивает версию при каждом UPDATE и проверяет её в WHERE (оптимистическая блокировка)
+    @Column(name = "version")
+    @JsonIgnore // в JSON версия не попадает: клиент получает её в заголовке ETag
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -110,6 +119,14 @@ public class EntityShip {
         this.rating = rating;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "EntityShip{" +
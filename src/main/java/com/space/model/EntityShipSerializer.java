@@ -0,0 +1,74 @@
+package com.space.model;
+
+/*
+ Сериализация EntityShip в JSON без рефлексии (ответы POST /rest/ships, /rest/ships/{id}, /rest/ships/seek, экспорт NDJSON).
+ Результат тот же, что давала сериализация по полям (видимость полей ANY в WebConfig):
+ id, name, planet, shipType, prodDate (миллисекунды), isUsed, speed, crewSize, rating; version в JSON не попадает.
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Date;
+
+public class EntityShipSerializer extends StdSerializer<EntityShip> {
+
+    public EntityShipSerializer() {
+        super(EntityShip.class);
+    }
+
+    @Override
+    public void serialize(EntityShip ship, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeFieldName(ShipJsonFields.ID);
+        if (ship.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(ship.getId());
+        }
+        generator.writeFieldName(ShipJsonFields.NAME);
+        generator.writeString(ship.getName());
+        generator.writeFieldName(ShipJsonFields.PLANET);
+        generator.writeString(ship.getPlanet());
+        generator.writeFieldName(ShipJsonFields.SHIP_TYPE);
+        ShipType shipType = ship.getShipType();
+        generator.writeString(shipType == null ? null : shipType.name());
+
+        generator.writeFieldName(ShipJsonFields.PROD_DATE);
+        Date prodDate = ship.getProdDate();
+        if (prodDate == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(prodDate.getTime());
+        }
+        generator.writeFieldName(ShipJsonFields.IS_USED);
+        if (ship.getUsed() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(ship.getUsed());
+        }
+        generator.writeFieldName(ShipJsonFields.SPEED);
+        if (ship.getSpeed() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(ship.getSpeed());
+        }
+        generator.writeFieldName(ShipJsonFields.CREW_SIZE);
+        if (ship.getCrewSize() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(ship.getCrewSize());
+        }
+        generator.writeFieldName(ShipJsonFields.RATING);
+        if (ship.getRating() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(ship.getRating());
+        }
+
+        generator.writeEndObject();
+    }
+}
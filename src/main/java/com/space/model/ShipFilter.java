@@ -0,0 +1,174 @@
+package com.space.model;
+
+/*
+ Набор фильтров, которые принимают GET /rest/ships и GET /rest/ships/count.
+ Spring связывает параметры запроса с полями этого класса по именам сеттеров (@ModelAttribute),
+ поэтому один объект фильтра разбирается один раз и переиспользуется для построения Specification.
+ */
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+public class ShipFilter {
+
+    private String name;
+    private String planet;
+    private ShipType shipType;
+    private Long after;
+    private Long before;
+    private Boolean isUsed;
+    private Double minSpeed;
+    private Double maxSpeed;
+    private Integer minCrewSize;
+    private Integer maxCrewSize;
+    private Double minRating;
+    private Double maxRating;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public void setPlanet(String planet) {
+        this.planet = planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType;
+    }
+
+    public void setShipType(ShipType shipType) {
+        this.shipType = shipType;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public void setAfter(Long after) {
+        this.after = after;
+    }
+
+    public Long getBefore() {
+        return before;
+    }
+
+    public void setBefore(Long before) {
+        this.before = before;
+    }
+
+    public Boolean getIsUsed() {
+        return isUsed;
+    }
+
+    public void setIsUsed(Boolean isUsed) {
+        this.isUsed = isUsed;
+    }
+
+    public Double getMinSpeed() {
+        return minSpeed;
+    }
+
+    public void setMinSpeed(Double minSpeed) {
+        this.minSpeed = minSpeed;
+    }
+
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    public void setMaxSpeed(Double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    public Integer getMinCrewSize() {
+        return minCrewSize;
+    }
+
+    public void setMinCrewSize(Integer minCrewSize) {
+        this.minCrewSize = minCrewSize;
+    }
+
+    public Integer getMaxCrewSize() {
+        return maxCrewSize;
+    }
+
+    public void setMaxCrewSize(Integer maxCrewSize) {
+        this.maxCrewSize = maxCrewSize;
+    }
+
+    public Double getMinRating() {
+        return minRating;
+    }
+
+    public void setMinRating(Double minRating) {
+        this.minRating = minRating;
+    }
+
+    public Double getMaxRating() {
+        return maxRating;
+    }
+
+    public void setMaxRating(Double maxRating) {
+        this.maxRating = maxRating;
+    }
+
+    // Границы prodDate (включительно) для параметров after/before - те же, что в ShipServiceImpl.selectByProdDate:
+    // только after - prodDate >= after; только before - prodDate <= before - 1;
+    // оба - prodDate between after и (before - 1 с часом 0 в 12-часовом формате) - 1 мс.
+    // Если параметр не задан, граница - Long.MIN_VALUE / Long.MAX_VALUE.
+    public static long prodDateFrom(Long after) {
+        return after == null ? Long.MIN_VALUE : after;
+    }
+
+    public static long prodDateTo(Long after, Long before) {
+        if (before == null) {
+            return Long.MAX_VALUE;
+        }
+        if (after == null) {
+            return before - 1;
+        }
+        Calendar beforeCalendar = new GregorianCalendar();
+        beforeCalendar.setTime(new Date(before - 1));
+        beforeCalendar.set(Calendar.HOUR, 0);
+        beforeCalendar.add(Calendar.MILLISECOND, -1);
+        return beforeCalendar.getTimeInMillis();
+    }
+
+    // Ни один фильтр не задан - запрос относится ко всем кораблям.
+    public boolean isEmpty() {
+        return name == null && planet == null && shipType == null && after == null && before == null && isUsed == null
+                && minSpeed == null && maxSpeed == null && minCrewSize == null && maxCrewSize == null
+                && minRating == null && maxRating == null;
+    }
+
+    // Каноническая строка фильтра: одинаковые наборы параметров (в любом порядке и записи, например 0.3 и 0.30)
+    // дают одну и ту же строку. Используется как часть ключа кеша результатов запросов.
+    public String toCanonicalString() {
+        return "name=" + quote(name) +
+                "|planet=" + quote(planet) +
+                "|shipType=" + shipType +
+                "|after=" + after +
+                "|before=" + before +
+                "|isUsed=" + isUsed +
+                "|minSpeed=" + minSpeed +
+                "|maxSpeed=" + maxSpeed +
+                "|minCrewSize=" + minCrewSize +
+                "|maxCrewSize=" + maxCrewSize +
+                "|minRating=" + minRating +
+                "|maxRating=" + maxRating;
+    }
+
+    // строки записываем вместе с длиной, чтобы символ '|' внутри значения не мог склеить два разных фильтра
+    private static String quote(String value) {
+        return value == null ? "null" : value.length() + ":" + value;
+    }
+}
@@ -0,0 +1,25 @@
+package com.space.model;
+
+/*
+ Имена полей JSON корабля, общие для EntityShipSerializer и ShipViewSerializer.
+ SerializedString хранит имя уже в кодировке UTF-8 и с экранированием, поэтому генератор копирует готовые байты,
+ а не кодирует строку имени заново для каждого корабля.
+ */
+
+import com.fasterxml.jackson.core.io.SerializedString;
+
+final class ShipJsonFields {
+
+    static final SerializedString ID = new SerializedString("id");
+    static final SerializedString NAME = new SerializedString("name");
+    static final SerializedString PLANET = new SerializedString("planet");
+    static final SerializedString SHIP_TYPE = new SerializedString("shipType");
+    static final SerializedString PROD_DATE = new SerializedString("prodDate");
+    static final SerializedString IS_USED = new SerializedString("isUsed");
+    static final SerializedString SPEED = new SerializedString("speed");
+    static final SerializedString CREW_SIZE = new SerializedString("crewSize");
+    static final SerializedString RATING = new SerializedString("rating");
+
+    private ShipJsonFields() {
+    }
+}
@@ -0,0 +1,207 @@
+package com.space.model;
+
+/*
+ Компактное неизменяемое представление корабля для чтения: кеш кораблей и ответы со списками.
+ В отличие от EntityShip все числа хранятся примитивами (без Long/Double/Integer и без объекта Date),
+ тип корабля - номером константы ShipType, а названия планет интернируются, так как их немного и они повторяются.
+ Колонки таблицы ship допускают NULL, поэтому отсутствующее значение хранится специальным значением
+ (NaN, MIN_VALUE, -1) и сериализуется как null - JSON совпадает с JSON EntityShip (ShipViewSerializer).
+ prodDate - колонка DATE, поэтому дата приводится к началу дня в часовом поясе JVM (как её сохраняет и читает
+ Hibernate): корабль в кеше и тот же корабль, перечитанный из БД после вытеснения, дают одинаковый JSON.
+ Версия (EntityShip.version) в JSON не попадает, из неё строится ETag корабля; у кораблей из FleetIndex она не хранится (NULL_LONG).
+ */
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Date;
+import java.util.Objects;
+import java.util.TimeZone;
+
+@JsonSerialize(using = ShipViewSerializer.class)
+public final class ShipView {
+
+    public static final byte NULL_BYTE = -1;
+    public static final long NULL_LONG = Long.MIN_VALUE;
+    public static final int NULL_INT = Integer.MIN_VALUE;
+
+    private static final ShipType[] SHIP_TYPES = ShipType.values();
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final long id;
+    private final long version;
+    private final long prodDate;    // миллисекунды начала дня, как в JSON
+    private final double speed;
+    private final double rating;
+    private final int crewSize;
+    private final String name;
+    private final String planet;
+    private final byte shipType;    // ShipType.ordinal()
+    private final byte isUsed;      // 0 / 1
+
+    private ShipView(EntityShip ship) {
+        this.id = ship.getId() == null ? NULL_LONG : ship.getId();
+        this.version = ship.getVersion() == null ? NULL_LONG : ship.getVersion();
+        this.name = ship.getName();
+        this.planet = ship.getPlanet() == null ? null : ship.getPlanet().intern();
+        this.shipType = ship.getShipType() == null ? NULL_BYTE : (byte) ship.getShipType().ordinal();
+        this.prodDate = ship.getProdDate() == null ? NULL_LONG : startOfDay(ship.getProdDate().getTime());
+        this.isUsed = ship.getUsed() == null ? NULL_BYTE : (byte) (ship.getUsed() ? 1 : 0);
+        this.speed = ship.getSpeed() == null ? Double.NaN : ship.getSpeed();
+        this.crewSize = ship.getCrewSize() == null ? NULL_INT : ship.getCrewSize();
+        this.rating = ship.getRating() == null ? Double.NaN : ship.getRating();
+    }
+
+    private ShipView(long id, String name, String planet, byte shipType, long prodDate, byte isUsed,
+                     double speed, int crewSize, double rating) {
+        this.id = id;
+        this.version = NULL_LONG;
+        this.name = name;
+        this.planet = planet;
+        this.shipType = shipType;
+        this.prodDate = prodDate;
+        this.isUsed = isUsed;
+        this.speed = speed;
+        this.crewSize = crewSize;
+        this.rating = rating;
+    }
+
+    public static ShipView of(EntityShip ship) {
+        return new ShipView(ship);
+    }
+
+    // Начало дня, которому принадлежит момент millis, в часовом поясе JVM - то, что вернёт БД из колонки DATE.
+    public static long startOfDay(long millis) {
+        TimeZone timeZone = TimeZone.getDefault();
+        long localDays = Math.floorDiv(millis + timeZone.getOffset(millis), MILLIS_PER_DAY);
+        long utcMidnight = localDays * MILLIS_PER_DAY;
+        return utcMidnight - timeZone.getOffset(utcMidnight - timeZone.getOffset(millis));
+    }
+
+    // Корабль из уже закодированных значений (ordinal типа, 0/1 для isUsed, специальные значения вместо NULL).
+    public static ShipView of(long id, String name, String planet, byte shipType, long prodDate, byte isUsed,
+                              double speed, int crewSize, double rating) {
+        return new ShipView(id, name, planet, shipType, prodDate, isUsed, speed, crewSize, rating);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean hasVersion() {
+        return version != NULL_LONG;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlanet() {
+        return planet;
+    }
+
+    public ShipType getShipType() {
+        return shipType == NULL_BYTE ? null : SHIP_TYPES[shipType];
+    }
+
+    public byte getShipTypeCode() {
+        return shipType;
+    }
+
+    public long getProdDateMillis() {
+        return prodDate;
+    }
+
+    public boolean hasProdDate() {
+        return prodDate != NULL_LONG;
+    }
+
+    public boolean hasUsed() {
+        return isUsed != NULL_BYTE;
+    }
+
+    public boolean isUsed() {
+        return isUsed == 1;
+    }
+
+    public byte getUsedCode() {
+        return isUsed;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    public boolean hasCrewSize() {
+        return crewSize != NULL_INT;
+    }
+
+    public int getCrewSize() {
+        return crewSize;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    // Полная сущность с теми же значениями (например, чтобы изменить корабль); ShipView при этом не меняется.
+    public EntityShip toEntity() {
+        EntityShip ship = new EntityShip();
+        ship.setId(id == NULL_LONG ? null : id);
+        ship.setVersion(hasVersion() ? version : null);
+        ship.setName(name);
+        ship.setPlanet(planet);
+        ship.setShipType(getShipType());
+        ship.setProdDate(hasProdDate() ? new Date(prodDate) : null);
+        ship.setUsed(hasUsed() ? isUsed() : null);
+        ship.setSpeed(Double.isNaN(speed) ? null : speed);
+        ship.setCrewSize(hasCrewSize() ? crewSize : null);
+        ship.setRating(Double.isNaN(rating) ? null : rating);
+        return ship;
+    }
+
+    // Все поля, включая версию; speed и rating сравниваются как Double.equals (NaN равен NaN).
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ShipView)) {
+            return false;
+        }
+        ShipView other = (ShipView) o;
+        return id == other.id
+                && version == other.version
+                && prodDate == other.prodDate
+                && Double.compare(speed, other.speed) == 0
+                && Double.compare(rating, other.rating) == 0
+                && crewSize == other.crewSize
+                && shipType == other.shipType
+                && isUsed == other.isUsed
+                && Objects.equals(name, other.name)
+                && Objects.equals(planet, other.planet);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(id) * 31 + Long.hashCode(version);
+    }
+
+    @Override
+    public String toString() {
+        return "ShipView{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", planet='" + planet + '\'' +
+                ", shipType=" + getShipType() +
+                ", prodDate=" + prodDate +
+                ", isUsed=" + isUsed() +
+                ", speed=" + speed +
+                ", crewSize=" + crewSize +
+                ", rating=" + rating +
+                '}';
+    }
+}
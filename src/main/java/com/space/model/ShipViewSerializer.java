@@ -0,0 +1,71 @@
+package com.space.model;
+
+/*
+ Сериализация ShipView в JSON без рефлексии. Порядок и имена полей те же, что у EntityShip (EntityShipSerializer):
+ id, name, planet, shipType, prodDate, isUsed, speed, crewSize, rating.
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+public class ShipViewSerializer extends StdSerializer<ShipView> {
+
+    public ShipViewSerializer() {
+        super(ShipView.class);
+    }
+
+    @Override
+    public void serialize(ShipView ship, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+
+        generator.writeFieldName(ShipJsonFields.ID);
+        if (ship.getId() == ShipView.NULL_LONG) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(ship.getId());
+        }
+        generator.writeFieldName(ShipJsonFields.NAME);
+        generator.writeString(ship.getName());
+        generator.writeFieldName(ShipJsonFields.PLANET);
+        generator.writeString(ship.getPlanet());
+        ShipType shipType = ship.getShipType();
+        generator.writeFieldName(ShipJsonFields.SHIP_TYPE);
+        generator.writeString(shipType == null ? null : shipType.name());
+
+        generator.writeFieldName(ShipJsonFields.PROD_DATE);
+        if (ship.hasProdDate()) {
+            generator.writeNumber(ship.getProdDateMillis());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(ShipJsonFields.IS_USED);
+        if (ship.hasUsed()) {
+            generator.writeBoolean(ship.isUsed());
+        } else {
+            generator.writeNull();
+        }
+        writeDouble(generator, ShipJsonFields.SPEED, ship.getSpeed());
+        generator.writeFieldName(ShipJsonFields.CREW_SIZE);
+        if (ship.hasCrewSize()) {
+            generator.writeNumber(ship.getCrewSize());
+        } else {
+            generator.writeNull();
+        }
+        writeDouble(generator, ShipJsonFields.RATING, ship.getRating());
+
+        generator.writeEndObject();
+    }
+
+    private static void writeDouble(JsonGenerator generator, SerializedString fieldName, double value) throws IOException {
+        generator.writeFieldName(fieldName);
+        if (Double.isNaN(value)) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+}
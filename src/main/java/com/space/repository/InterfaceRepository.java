@@ -10,8 +10,15 @@ package com.space.repository;
 import com.space.model.EntityShip;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface InterfaceRepository extends JpaRepository<EntityShip, Long>, JpaSpecificationExecutor<EntityShip> {
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+public interface InterfaceRepository extends JpaRepository<EntityShip, Long>, JpaSpecificationExecutor<EntityShip>, InterfaceRepositoryCustom {
     // <EntityShip, Long> - Long в данном случае - это тип айдишника сущности EntityShip
 
     /*
@@ -23,4 +30,32 @@ public interface InterfaceRepository extends JpaRepository<EntityShip, Long>, Jp
     boolean exists(Predicate) — сообщает, есть ли в базе данных объект соответствующий условию
 
      */
+
+    /*
+    Запись одним SQL-выражением без предварительного чтения (JPQL UPDATE/DELETE выполняются сразу, минуя контекст Hibernate).
+    Условие version = :version заменяет проверку, которую Hibernate делает для @Version при save:
+    результат 0 - корабля нет или его успели изменить, 1 - записан именно тот корабль, значения которого известны вызывающему.
+     */
+
+    // все поля ship (кроме id и version); версия увеличивается на 1
+    @Modifying
+    @Query("update EntityShip s set s.name = :#{#ship.name}, s.planet = :#{#ship.planet}, s.shipType = :#{#ship.shipType}, "
+            + "s.prodDate = :#{#ship.prodDate}, s.isUsed = :#{#ship.used}, s.speed = :#{#ship.speed}, "
+            + "s.crewSize = :#{#ship.crewSize}, s.rating = :#{#ship.rating}, s.version = s.version + 1 "
+            + "where s.id = :#{#ship.id} and s.version = :version")
+    int updateIfVersion(@Param("ship") EntityShip ship, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from EntityShip s where s.id = :id and s.version = :version")
+    int deleteIfVersion(@Param("id") Long id, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from EntityShip s where s.id = :id")
+    int deleteShipById(@Param("id") Long id);
+
+    // Чтение с блокировкой строки (SELECT ... FOR UPDATE) до конца транзакции. В отличие от обычного SELECT,
+    // в InnoDB (REPEATABLE READ) читается последняя зафиксированная версия строки, а не снимок начала транзакции.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from EntityShip s where s.id = :id")
+    Optional<EntityShip> findByIdForUpdate(@Param("id") Long id);
 }
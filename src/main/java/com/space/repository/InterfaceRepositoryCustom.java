@@ -0,0 +1,25 @@
+package com.space.repository;
+
+/*
+ Дополнительные методы репозитория, которые нельзя выразить стандартными методами Spring Data.
+ Реализация находится в InterfaceRepositoryCustomImpl (Spring Data находит её по суффиксу Impl).
+ */
+
+import com.space.model.EntityShip;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface InterfaceRepositoryCustom {
+
+    // Возвращает не более limit сущностей, подходящих под Specification, в порядке sort.
+    // В отличие от findAll(Specification, Pageable) не выполняет COUNT и не использует OFFSET.
+    List<EntityShip> findSlice(Specification<EntityShip> specification, Sort sort, int limit);
+
+    // Последовательно передаёт в consumer все сущности, подходящие под Specification, в порядке sort.
+    // Строки читаются курсором БД порциями по fetchSize, а каждая обработанная сущность сразу отсоединяется
+    // от контекста, поэтому расход памяти не зависит от количества строк. Вызывать внутри транзакции.
+    void scroll(Specification<EntityShip> specification, Sort sort, int fetchSize, Consumer<EntityShip> consumer);
+}
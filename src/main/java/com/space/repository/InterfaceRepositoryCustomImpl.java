@@ -0,0 +1,69 @@
+package com.space.repository;
+
+import com.space.model.EntityShip;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class InterfaceRepositoryCustomImpl implements InterfaceRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EntityShip> findSlice(Specification<EntityShip> specification, Sort sort, int limit) {
+        return entityManager.createQuery(createQuery(specification, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void scroll(Specification<EntityShip> specification, Sort sort, int fetchSize, Consumer<EntityShip> consumer) {
+        TypedQuery<EntityShip> typedQuery = entityManager.createQuery(createQuery(specification, sort));
+        // unwrap принимает только сырой класс Query; тип строк уже задан CriteriaQuery<EntityShip>
+        @SuppressWarnings("unchecked")
+        Query<EntityShip> query = typedQuery.unwrap(Query.class);
+        query.setFetchSize(fetchSize).setReadOnly(true);
+
+        try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            while (results.next()) {
+                EntityShip ship = (EntityShip) results.get(0);
+                consumer.accept(ship);
+                entityManager.detach(ship);
+            }
+        }
+    }
+
+    private CriteriaQuery<EntityShip> createQuery(Specification<EntityShip> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EntityShip> query = criteriaBuilder.createQuery(EntityShip.class);
+        Root<EntityShip> root = query.from(EntityShip.class);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            orders.add(order.isAscending()
+                    ? criteriaBuilder.asc(root.get(order.getProperty()))
+                    : criteriaBuilder.desc(root.get(order.getProperty())));
+        }
+        return query.select(root).orderBy(orders);
+    }
+}
@@ -0,0 +1,75 @@
+package com.space.repository;
+
+/*
+ Пакетная вставка новых кораблей через JDBC.
+ EntityShip.id генерируется через IDENTITY (auto_increment), а с IDENTITY Hibernate выполняет INSERT сразу при persist
+ и не может объединять их в пакеты. Здесь INSERT отправляются пакетами по db.batch-size
+ (MySQL Connector/J с rewriteBatchedStatements превращает пакет в один многострочный INSERT),
+ а сгенерированные id читаются из getGeneratedKeys и проставляются в сущности вместе с начальной версией 0.
+ Соединение берётся из текущей транзакции, поэтому вставка откатывается вместе с ней.
+ */
+
+import com.space.model.EntityShip;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public class ShipBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize, rating, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ShipBatchWriter(DataSource dataSource, Environment environment) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchSize = environment.getRequiredProperty("db.batch-size", Integer.class);
+    }
+
+    // Вставляет корабли пакетами и проставляет им id и версию.
+    public void insertAll(List<EntityShip> ships) {
+        for (int from = 0; from < ships.size(); from += batchSize) {
+            insertBatch(ships.subList(from, Math.min(from + batchSize, ships.size())));
+        }
+    }
+
+    private void insertBatch(List<EntityShip> ships) {
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[]{"id"})) {
+                for (EntityShip ship : ships) {
+                    statement.setString(1, ship.getName());
+                    statement.setString(2, ship.getPlanet());
+                    statement.setString(3, ship.getShipType().name());
+                    statement.setTimestamp(4, new Timestamp(ship.getProdDate().getTime()));
+                    statement.setBoolean(5, ship.getUsed());
+                    statement.setDouble(6, ship.getSpeed());
+                    statement.setInt(7, ship.getCrewSize());
+                    statement.setDouble(8, ship.getRating());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (EntityShip ship : ships) {
+                        if (!keys.next()) {
+                            throw new DataRetrievalFailureException("Not all generated ship ids were returned by the batch insert");
+                        }
+                        ship.setId(keys.getLong(1));
+                        ship.setVersion(0L);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
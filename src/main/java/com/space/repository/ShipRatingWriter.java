@@ -0,0 +1,93 @@
+package com.space.repository;
+
+/*
+ Пересчёт рейтингов кораблей в БД без чтения строк в приложение: один UPDATE на пачку id.
+ Рейтинг считается выражением SQL по тем же шагам, что ShipRating.rating: умножение и деление в DOUBLE в том же
+ порядке, год - YEAR(prodDate), а округление до сотых HALF_UP - как в ShipRating.roundHalfUp2: FLOOR(value * 100)
+ и поправка на единицу сравнением value с границей (2n + 1) / 200 или (2n - 1) / 200. Коэффициенты и делители
+ 200 и 100 явно приводятся к DOUBLE (CAST AS DOUBLE - MySQL 8.0.17+): без этого H2 приводит параметр к типу другого
+ операнда (INT), а MySQL считает литерал 200.0 в DECIMAL. Совпадение с ShipRating до бита на всей области значений
+ (год 2800..3019, скорость 0.01..0.99 с шагом 0.01, isUsed) проверяет ShipRatingWriterTest.
+ Изменяются только строки, у которых сохранённый рейтинг отличается от рассчитанного; их версия увеличивается
+ (ETag и If-Match видят изменение). Корабли с годом выпуска позже текущего года пропускаются - рейтинг для них не определён.
+ Соединение берётся из текущей транзакции.
+ */
+
+import com.space.service.ShipRating;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Types;
+
+@Repository
+public class ShipRatingWriter {
+
+    private static final String VALUE = "(CAST(:coefficient AS DOUBLE) * speed"
+            + " * CASE WHEN isUsed = TRUE THEN CAST(:usedCoefficient AS DOUBLE) ELSE 1 END)"
+            + " / (:currentYear - YEAR(prodDate) + 1)";
+    private static final String HUNDREDTHS = "FLOOR(" + VALUE + " * 100)";
+    private static final String RATING = "(" + HUNDREDTHS + " + CASE"
+            + " WHEN " + VALUE + " >= (2 * " + HUNDREDTHS + " + 1) / CAST(200 AS DOUBLE) THEN 1"
+            + " WHEN " + HUNDREDTHS + " > 0 AND " + VALUE + " < (2 * " + HUNDREDTHS + " - 1) / CAST(200 AS DOUBLE) THEN -1"
+            + " ELSE 0 END) / CAST(100 AS DOUBLE)";
+
+    private static final String UPDATE_SQL = "UPDATE ship SET rating = " + RATING + ", version = version + 1"
+            + " WHERE id > :afterId AND id <= :lastId"
+            + " AND speed IS NOT NULL AND isUsed IS NOT NULL AND YEAR(prodDate) <= :currentYear"
+            + " AND (rating IS NULL OR rating <> " + RATING + ")";
+
+    // первые limit id после afterId: сколько их и последний из них (по индексу первичного ключа)
+    private static final String CHUNK_SQL = "SELECT COUNT(*), MAX(id) FROM (SELECT id FROM ship WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public ShipRatingWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ship", Long.class);
+    }
+
+    // Следующая пачка: не больше limit кораблей с id больше afterId; null - кораблей дальше нет.
+    public Chunk nextChunk(long afterId, int limit) {
+        return jdbcTemplate.queryForObject(CHUNK_SQL, (resultSet, row) -> {
+            long rows = resultSet.getLong(1);
+            return rows == 0 ? null : new Chunk(rows, resultSet.getLong(2));
+        }, afterId, limit);
+    }
+
+    // Пересчитывает рейтинг кораблей с id в (afterId, lastId]; возвращает число изменённых строк.
+    public int recompute(ShipRating shipRating, long afterId, long lastId) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("coefficient", shipRating.getCoefficient(), Types.DOUBLE)
+                .addValue("usedCoefficient", shipRating.getUsedCoefficient(), Types.DOUBLE)
+                .addValue("currentYear", shipRating.getCurrentYear(), Types.INTEGER)
+                .addValue("afterId", afterId, Types.BIGINT)
+                .addValue("lastId", lastId, Types.BIGINT);
+        return namedParameterJdbcTemplate.update(UPDATE_SQL, parameters);
+    }
+
+    public static class Chunk {
+        private final long rows;
+        private final long lastId;
+
+        Chunk(long rows, long lastId) {
+            this.rows = rows;
+            this.lastId = lastId;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+    }
+}
@@ -0,0 +1,949 @@
+package com.space.service;
+
+/*
+ Колоночная копия таблицы ship в памяти приложения для фильтрации GET /rest/ships и GET /rest/ships/count без БД.
+ Включается свойством ship.fleet-index.enabled; при старте загружается из БД целиком одним проходом курсора,
+ а дальше ShipServiceImpl передаёт сюда каждое изменение (после фиксации транзакции).
+ Каждая колонка - примитивный массив, строка таблицы - номер позиции (slot) во всех массивах.
+ Условия фильтра вычисляются над сжатыми битовыми картами позиций (RoaringBitmap): для shipType и isUsed - карта
+ на каждое значение, для prodDate, speed, crewSize и rating - range-encoded карты по корзинам значений (RangeBitmaps).
+ Любая комбинация условий - это AND/ANDNOT карт; точно проверяются только строки из крайних корзин диапазонов
+ и условия на подстроку, а количество без условий на подстроку почти целиком - мощность карты.
+ Если кандидатов много (ship.fleet-index.parallel-threshold), их проверка делится по диапазонам позиций
+ между потоками ForkJoinPool (ship.fleet-index.parallelism): каждая часть считает свои совпадения и собирает
+ свою лучшую страницу, а результаты частей сливаются.
+ Условия совпадают с ShipServiceImpl.select*; фильтр, который нельзя вычислить точно так же, как БД
+ (LIKE в MySQL зависит от collation, шаблонные символы % и _), возвращается обратно в БД (find/count -> null/-1).
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.repository.InterfaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class FleetIndex implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FleetIndex.class);
+
+    private static final int SHIP_TYPES = ShipType.values().length;
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int PARALLEL_CHUNK = 1 << 16; // позиций в одной части параллельного просмотра (контейнер RoaringBitmap)
+
+    // границы корзин числовых колонок: допустимые значения из ShipServiceImpl.check*, рейтинг - не больше 80 * 0.99
+    private static final double MIN_PROD_DATE = (ShipRating.MIN_YEAR - 1970) * 365.2425 * MILLIS_PER_DAY;
+    private static final double MAX_PROD_DATE = (ShipRating.CURRENT_YEAR + 1 - 1970) * 365.2425 * MILLIS_PER_DAY;
+
+    private final boolean enabled;
+    private final int fetchSize;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool; // null - кандидаты всегда проверяются в вызывающем потоке
+    private final InterfaceRepository interfaceRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ShipSearchSupport shipSearchSupport;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // колонки; строки занимают позиции 0..size-1, удалённая строка замещается последней
+    private int size;
+    private long[] ids;
+    private String[] names;
+    private String[] planets;
+    private byte[] shipTypes;
+    private long[] prodDates;
+    private byte[] used;
+    private double[] speeds;
+    private int[] crewSizes;
+    private double[] ratings;
+
+    // битовые карты позиций: по одной на каждый ShipType и на isUsed = true / false, range-encoded - на числовые колонки
+    private final RoaringBitmap[] typeBitmaps = new RoaringBitmap[SHIP_TYPES];
+    private final RoaringBitmap usedBitmap = new RoaringBitmap();
+    private final RoaringBitmap notUsedBitmap = new RoaringBitmap();
+    private final RangeBitmaps prodDateBitmaps = new RangeBitmaps(MIN_PROD_DATE, MAX_PROD_DATE);
+    private final RangeBitmaps speedBitmaps = new RangeBitmaps(0, 1);
+    private final RangeBitmaps crewSizeBitmaps = new RangeBitmaps(0, 10000);
+    private final RangeBitmaps ratingBitmaps = new RangeBitmaps(0, 80);
+    private boolean loading; // при загрузке карты строятся один раз в конце, а не по строке
+
+    private final LongIntMap slots = new LongIntMap();
+    // id всех строк по возрастанию: позиции идут не в порядке id (удалённую строку замещает последняя)
+    private Roaring64Bitmap idOrder = new Roaring64Bitmap();
+
+    public FleetIndex(InterfaceRepository interfaceRepository, PlatformTransactionManager transactionManager,
+                      ShipSearchSupport shipSearchSupport, Environment environment) {
+        this.interfaceRepository = interfaceRepository;
+        this.transactionManager = transactionManager;
+        this.shipSearchSupport = shipSearchSupport;
+        this.enabled = environment.getRequiredProperty("ship.fleet-index.enabled", Boolean.class);
+        this.fetchSize = environment.getRequiredProperty("ship.export.fetch-size", Integer.class);
+        this.parallelThreshold = environment.getRequiredProperty("ship.fleet-index.parallel-threshold", Integer.class);
+        int parallelism = environment.getRequiredProperty("ship.fleet-index.parallelism", Integer.class);
+        if (parallelism == 1) {
+            this.pool = null;
+        } else {
+            this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Загрузка при старте приложения, когда все бины (включая транзакции и репозиторий) уже созданы.
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Полная перезагрузка из БД. На время загрузки запросы к индексу ждут.
+    public void reload() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            beginLoad();
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.execute(status -> {
+                interfaceRepository.scroll(null, Sort.by("id"), fetchSize, ship -> addRow(ShipView.of(ship)));
+                return null;
+            });
+            buildBitmaps();
+        } finally {
+            loading = false;
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Fleet index loaded {} ships in {} ms, bitmaps {} KB", size,
+                (System.nanoTime() - start) / 1_000_000, bitmapsSizeInBytes() / 1024);
+    }
+
+    // Загрузка готового набора кораблей без обращения к БД (бенчмарки).
+    void load(Iterable<EntityShip> ships) {
+        lock.writeLock().lock();
+        try {
+            beginLoad();
+            for (EntityShip ship : ships) {
+                addRow(ShipView.of(ship));
+            }
+            buildBitmaps();
+        } finally {
+            loading = false;
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void beginLoad() {
+        size = 0;
+        slots.clear();
+        idOrder = new Roaring64Bitmap();
+        allocate(INITIAL_CAPACITY);
+        loading = true;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Добавляет или заменяет корабли. Изменение применяется после фиксации текущей транзакции (или сразу, если её нет),
+    // поэтому откат транзакции не оставляет в индексе несуществующих кораблей.
+    public void putAll(Collection<EntityShip> ships) {
+        if (!enabled || ships.isEmpty()) {
+            return;
+        }
+        List<ShipView> views = new ArrayList<>(ships.size());
+        for (EntityShip ship : ships) {
+            views.add(ShipView.of(ship));
+        }
+        afterCommit(() -> {
+            for (ShipView view : views) {
+                addRow(view);
+            }
+        });
+    }
+
+    public void put(EntityShip ship) {
+        putAll(Collections.singletonList(ship));
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<Long> removed = new ArrayList<>(ids);
+        afterCommit(() -> {
+            for (Long id : removed) {
+                removeRow(id);
+            }
+        });
+    }
+
+    public void remove(Long id) {
+        removeAll(Collections.singletonList(id));
+    }
+
+    private void afterCommit(Runnable change) {
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Страница кораблей под фильтром в порядке pageable.getSort() (при равенстве - по id)
+    // или null, если этот запрос нужно выполнить в БД. Страница по id без условий на подстроку собирается обходом id
+    // по возрастанию (idPage) и не просматривает всех кандидатов; остальные - проверкой кандидатов с кучей (scan).
+    public Page<ShipView> find(ShipFilter filter, Pageable pageable) {
+        Matcher matcher = matcher(filter);
+        int sortField = sortField(pageable.getSort());
+        if (matcher == null || sortField < 0) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            long offset = pageable.getOffset();
+            int limit = (int) Math.min(offset + pageable.getPageSize(), size);
+            if (sortField == SORT_ID && filter.isEmpty()) {
+                return new PageImpl<>(idPage(null, null, offset, limit), pageable, size);
+            }
+            RoaringBitmap possible = possible(matcher);
+            if (sortField == SORT_ID && !matcher.byText && idWalkIsShorter(possible, limit)) {
+                List<ShipView> content = idPage(possible, matcher, offset, limit);
+                return new PageImpl<>(content, pageable, countMatches(possible, matcher));
+            }
+            Scan scan = scan(possible, matcher, limit, sortField);
+
+            int[] sorted = scan.heap.drainSorted();
+            List<ShipView> content = new ArrayList<>(Math.max(0, (int) (sorted.length - Math.min(offset, sorted.length))));
+            for (int i = (int) Math.min(offset, sorted.length); i < sorted.length; i++) {
+                content.add(view(sorted[i]));
+            }
+            return new PageImpl<>(content, pageable, scan.total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Количество кораблей под фильтром или -1, если этот запрос нужно выполнить в БД.
+    public long count(ShipFilter filter) {
+        Matcher matcher = matcher(filter);
+        if (matcher == null) {
+            return -1;
+        }
+
+        lock.readLock().lock();
+        try {
+            return countMatches(possible(matcher), matcher);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Количество подходящих строк среди possible (possible изменяется). Вызывается под read lock.
+    private long countMatches(RoaringBitmap possible, Matcher matcher) {
+        long total = 0;
+        if (!matcher.byText) {
+            // строки внутренних корзин подходят без проверки, проверяются только крайние
+            RoaringBitmap certain = certain(matcher);
+            total = certain.getLongCardinality();
+            possible.andNot(certain);
+        }
+        return total + scan(possible, matcher, 0, SORT_ID).total;
+    }
+
+    // Страница в порядке id обходом id по возрастанию с остановкой после limit подходящих строк (первые offset
+    // пропускаются). Без фильтра (possible == null) обход начинается сразу с offset-го id.
+    private List<ShipView> idPage(RoaringBitmap possible, Matcher matcher, long offset, int limit) {
+        List<ShipView> content = new ArrayList<>(Math.max(0, (int) (limit - Math.min(offset, limit))));
+        if (offset >= limit) {
+            return content;
+        }
+        LongIterator iterator = possible == null
+                ? idOrder.getLongIteratorFrom(idOrder.select(offset))
+                : idOrder.getLongIterator();
+        long seen = possible == null ? offset : 0;
+        while (seen < limit && iterator.hasNext()) {
+            int slot = slots.get(iterator.next());
+            if (possible == null || (possible.contains(slot) && matcher.matches(slot))) {
+                if (seen++ >= offset) {
+                    content.add(view(slot));
+                }
+            }
+        }
+        return content;
+    }
+
+    // Обход в порядке id просматривает в среднем limit * size / |possible| строк (если подходящие строки распределены
+    // по id равномерно), а проверка кандидатов с кучей - все |possible|; выбирается то, что короче.
+    private boolean idWalkIsShorter(RoaringBitmap possible, int limit) {
+        long candidates = possible.getLongCardinality();
+        return candidates > 0 && (double) limit * size / candidates < candidates;
+    }
+
+    // Точная проверка кандидатов: количество подошедших и лучшие limit из них в порядке sortField.
+    // Большие наборы кандидатов проверяются параллельно частями по PARALLEL_CHUNK позиций.
+    private Scan scan(RoaringBitmap candidates, Matcher matcher, int limit, int sortField) {
+        if (pool == null || size <= PARALLEL_CHUNK || candidates.getLongCardinality() < parallelThreshold) {
+            return scanRange(candidates, matcher, limit, sortField, 0, size);
+        }
+        return pool.invoke(new ScanTask(candidates, matcher, limit, sortField, 0, size));
+    }
+
+    private Scan scanRange(RoaringBitmap candidates, Matcher matcher, int limit, int sortField, int from, int to) {
+        Scan scan = new Scan(new SlotHeap(Math.min(limit, to - from), sortField));
+        PeekableIntIterator iterator = candidates.getIntIterator();
+        iterator.advanceIfNeeded(from);
+        while (iterator.hasNext()) {
+            int slot = iterator.next();
+            if (slot >= to) {
+                break;
+            }
+            if (matcher.matches(slot)) {
+                scan.total++;
+                scan.heap.offer(slot);
+            }
+        }
+        return scan;
+    }
+
+    // Результат проверки части кандидатов.
+    private final class Scan {
+        final SlotHeap heap;
+        long total;
+
+        Scan(SlotHeap heap) {
+            this.heap = heap;
+        }
+
+        Scan merge(Scan other, int limit) {
+            SlotHeap merged;
+            if (heap.capacity() >= limit) {
+                merged = heap;
+                merged.offerAll(other.heap);
+            } else if (other.heap.capacity() >= limit) {
+                merged = other.heap;
+                merged.offerAll(heap);
+            } else {
+                merged = new SlotHeap(Math.min(limit, heap.capacity() + other.heap.capacity()), heap.sortField);
+                merged.offerAll(heap);
+                merged.offerAll(other.heap);
+            }
+            Scan result = new Scan(merged);
+            result.total = total + other.total;
+            return result;
+        }
+    }
+
+    // Деление диапазона позиций пополам до частей по PARALLEL_CHUNK; потоки читают колонки под read lock вызывающего.
+    private final class ScanTask extends RecursiveTask<Scan> {
+        private final RoaringBitmap candidates;
+        private final Matcher matcher;
+        private final int limit;
+        private final int sortField;
+        private final int from;
+        private final int to;
+
+        ScanTask(RoaringBitmap candidates, Matcher matcher, int limit, int sortField, int from, int to) {
+            this.candidates = candidates;
+            this.matcher = matcher;
+            this.limit = limit;
+            this.sortField = sortField;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Scan compute() {
+            if (to - from <= PARALLEL_CHUNK) {
+                return scanRange(candidates, matcher, limit, sortField, from, to);
+            }
+            // граница частей кратна PARALLEL_CHUNK, чтобы часть не делила контейнер RoaringBitmap с соседней
+            int middle = from + Math.max(1, (to - from) / PARALLEL_CHUNK / 2) * PARALLEL_CHUNK;
+            ScanTask left = new ScanTask(candidates, matcher, limit, sortField, from, middle);
+            left.fork();
+            Scan right = new ScanTask(candidates, matcher, limit, sortField, middle, to).compute();
+            return left.join().merge(right, limit);
+        }
+    }
+
+    // Позиции, которые могут подходить под фильтр: равенства и корзины диапазонов (AND карт).
+    private RoaringBitmap possible(Matcher matcher) {
+        RoaringBitmap result = equalities(matcher);
+        if (matcher.bySpeed) {
+            result.and(speedBitmaps.candidates(matcher.fromSpeed, matcher.toSpeed));
+        }
+        if (matcher.byRating) {
+            result.and(ratingBitmaps.candidates(matcher.fromRating, matcher.toRating));
+        }
+        if (matcher.byCrewSize) {
+            result.and(crewSizeBitmaps.candidates(matcher.fromCrewSize, matcher.toCrewSize));
+        }
+        if (matcher.byProdDate) {
+            result.and(prodDateBitmaps.candidates(matcher.fromProdDate, matcher.toProdDate));
+        }
+        return result;
+    }
+
+    // Позиции, которые подходят под условия на равенство и диапазоны без дополнительной проверки.
+    private RoaringBitmap certain(Matcher matcher) {
+        RoaringBitmap result = equalities(matcher);
+        if (matcher.bySpeed) {
+            result.and(speedBitmaps.certain(matcher.fromSpeed, matcher.toSpeed));
+        }
+        if (matcher.byRating) {
+            result.and(ratingBitmaps.certain(matcher.fromRating, matcher.toRating));
+        }
+        if (matcher.byCrewSize) {
+            result.and(crewSizeBitmaps.certain(matcher.fromCrewSize, matcher.toCrewSize));
+        }
+        if (matcher.byProdDate) {
+            result.and(prodDateBitmaps.certain(matcher.fromProdDate, matcher.toProdDate));
+        }
+        return result;
+    }
+
+    private RoaringBitmap equalities(Matcher matcher) {
+        RoaringBitmap result = new RoaringBitmap();
+        result.add(0L, size);
+        if (matcher.shipType >= 0) {
+            result.and(typeBitmaps[matcher.shipType]);
+        }
+        if (matcher.used == 1) {
+            result.and(usedBitmap);
+        } else if (matcher.used == 0) {
+            result.and(notUsedBitmap);
+        }
+        return result;
+    }
+
+    private Matcher matcher(ShipFilter filter) {
+        if (!searchable(filter.getName()) || !searchable(filter.getPlanet())) {
+            return null;
+        }
+        return new Matcher(filter);
+    }
+
+    // Подстроку можно искать через String.contains, только если LIKE в БД сравнивает посимвольно
+    // и в тексте нет символов шаблона LIKE.
+    private boolean searchable(String text) {
+        if (text == null) {
+            return true;
+        }
+        return shipSearchSupport.isLikeExact()
+                && text.indexOf('%') < 0 && text.indexOf('_') < 0 && text.indexOf('\\') < 0;
+    }
+
+    private static int sortField(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.forEach(orders::add);
+        if (orders.size() > 1 || (orders.size() == 1 && orders.get(0).isDescending())) {
+            return -1;
+        }
+        String property = orders.isEmpty() ? "id" : orders.get(0).getProperty();
+        switch (property) {
+            case "id":
+                return SORT_ID;
+            case "speed":
+                return SORT_SPEED;
+            case "prodDate":
+                return SORT_PROD_DATE;
+            case "rating":
+                return SORT_RATING;
+            default:
+                return -1;
+        }
+    }
+
+    private static final int SORT_ID = 0;
+    private static final int SORT_SPEED = 1;
+    private static final int SORT_PROD_DATE = 2;
+    private static final int SORT_RATING = 3;
+
+    // Порядок строк как ORDER BY field, id; NULL (NaN, NULL_LONG) идут первыми, как в H2 и MySQL.
+    private int compare(int a, int b, int sortField) {
+        int result;
+        switch (sortField) {
+            case SORT_SPEED:
+                result = compareNullable(speeds[a], speeds[b]);
+                break;
+            case SORT_PROD_DATE:
+                result = Long.compare(prodDates[a], prodDates[b]);
+                break;
+            case SORT_RATING:
+                result = compareNullable(ratings[a], ratings[b]);
+                break;
+            default:
+                result = 0;
+        }
+        return result != 0 ? result : Long.compare(ids[a], ids[b]);
+    }
+
+    private static int compareNullable(double a, double b) {
+        boolean aNull = Double.isNaN(a);
+        boolean bNull = Double.isNaN(b);
+        if (aNull || bNull) {
+            return aNull == bNull ? 0 : (aNull ? -1 : 1);
+        }
+        return Double.compare(a, b);
+    }
+
+    private ShipView view(int slot) {
+        return ShipView.of(ids[slot], names[slot], planets[slot], shipTypes[slot], prodDates[slot], used[slot],
+                speeds[slot], crewSizes[slot], ratings[slot]);
+    }
+
+    // Запись корабля в его позицию (новая позиция в конце, если корабля ещё нет). Вызывается под write lock.
+    private void addRow(ShipView ship) {
+        int slot = slots.get(ship.getId());
+        if (slot < 0) {
+            slot = size++;
+            if (slot == ids.length) {
+                grow();
+            }
+            slots.put(ship.getId(), slot);
+            idOrder.addLong(ship.getId());
+        } else {
+            unindexRow(slot);
+        }
+        ids[slot] = ship.getId();
+        names[slot] = ship.getName();
+        planets[slot] = ship.getPlanet();
+        shipTypes[slot] = ship.getShipTypeCode();
+        // ShipView уже хранит начало дня, как колонка DATE
+        prodDates[slot] = ship.hasProdDate() ? ship.getProdDateMillis() : ShipView.NULL_LONG;
+        used[slot] = ship.getUsedCode();
+        speeds[slot] = ship.getSpeed();
+        crewSizes[slot] = ship.getCrewSize();
+        ratings[slot] = ship.getRating();
+        if (!loading) {
+            indexRow(slot);
+        }
+    }
+
+    // Удаление: на место удалённой строки переносится последняя. Вызывается под write lock.
+    private void removeRow(long id) {
+        int slot = slots.remove(id);
+        if (slot < 0) {
+            return;
+        }
+        idOrder.removeLong(id);
+        unindexRow(slot);
+        int last = --size;
+        if (slot != last) {
+            unindexRow(last);
+            ids[slot] = ids[last];
+            names[slot] = names[last];
+            planets[slot] = planets[last];
+            shipTypes[slot] = shipTypes[last];
+            prodDates[slot] = prodDates[last];
+            used[slot] = used[last];
+            speeds[slot] = speeds[last];
+            crewSizes[slot] = crewSizes[last];
+            ratings[slot] = ratings[last];
+            indexRow(slot);
+            slots.put(ids[slot], slot);
+        }
+        names[last] = null;
+        planets[last] = null;
+    }
+
+    private void indexRow(int slot) {
+        if (shipTypes[slot] != ShipView.NULL_BYTE) {
+            typeBitmaps[shipTypes[slot]].add(slot);
+        }
+        if (used[slot] == 1) {
+            usedBitmap.add(slot);
+        } else if (used[slot] == 0) {
+            notUsedBitmap.add(slot);
+        }
+        prodDateBitmaps.add(slot, prodDateValue(slot));
+        speedBitmaps.add(slot, speeds[slot]);
+        crewSizeBitmaps.add(slot, crewSizeValue(slot));
+        ratingBitmaps.add(slot, ratings[slot]);
+    }
+
+    private void unindexRow(int slot) {
+        if (shipTypes[slot] != ShipView.NULL_BYTE) {
+            typeBitmaps[shipTypes[slot]].remove(slot);
+        }
+        usedBitmap.remove(slot);
+        notUsedBitmap.remove(slot);
+        prodDateBitmaps.remove(slot, prodDateValue(slot));
+        speedBitmaps.remove(slot, speeds[slot]);
+        crewSizeBitmaps.remove(slot, crewSizeValue(slot));
+        ratingBitmaps.remove(slot, ratings[slot]);
+    }
+
+    // Все карты заново по колонкам (после загрузки): так быстрее, чем добавлять строки в range-encoded карты по одной.
+    private void buildBitmaps() {
+        for (int type = 0; type < SHIP_TYPES; type++) {
+            typeBitmaps[type] = new RoaringBitmap();
+        }
+        usedBitmap.clear();
+        notUsedBitmap.clear();
+        for (int slot = 0; slot < size; slot++) {
+            if (shipTypes[slot] != ShipView.NULL_BYTE) {
+                typeBitmaps[shipTypes[slot]].add(slot);
+            }
+            if (used[slot] == 1) {
+                usedBitmap.add(slot);
+            } else if (used[slot] == 0) {
+                notUsedBitmap.add(slot);
+            }
+        }
+        for (RoaringBitmap bitmap : typeBitmaps) {
+            bitmap.runOptimize();
+        }
+        prodDateBitmaps.build(this::prodDateValue, size);
+        speedBitmaps.build(slot -> speeds[slot], size);
+        crewSizeBitmaps.build(this::crewSizeValue, size);
+        ratingBitmaps.build(slot -> ratings[slot], size);
+    }
+
+    private long bitmapsSizeInBytes() {
+        long bytes = usedBitmap.getLongSizeInBytes() + notUsedBitmap.getLongSizeInBytes();
+        for (RoaringBitmap bitmap : typeBitmaps) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes + prodDateBitmaps.sizeInBytes() + speedBitmaps.sizeInBytes()
+                + crewSizeBitmaps.sizeInBytes() + ratingBitmaps.sizeInBytes();
+    }
+
+    private double prodDateValue(int slot) {
+        return prodDates[slot] == ShipView.NULL_LONG ? Double.NaN : prodDates[slot];
+    }
+
+    private double crewSizeValue(int slot) {
+        return crewSizes[slot] == ShipView.NULL_INT ? Double.NaN : crewSizes[slot];
+    }
+
+    private void allocate(int capacity) {
+        ids = new long[capacity];
+        names = new String[capacity];
+        planets = new String[capacity];
+        shipTypes = new byte[capacity];
+        prodDates = new long[capacity];
+        used = new byte[capacity];
+        speeds = new double[capacity];
+        crewSizes = new int[capacity];
+        ratings = new double[capacity];
+        for (int type = 0; type < SHIP_TYPES; type++) {
+            typeBitmaps[type] = new RoaringBitmap();
+        }
+        usedBitmap.clear();
+        notUsedBitmap.clear();
+        prodDateBitmaps.clear();
+        speedBitmaps.clear();
+        crewSizeBitmaps.clear();
+        ratingBitmaps.clear();
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        planets = Arrays.copyOf(planets, capacity);
+        shipTypes = Arrays.copyOf(shipTypes, capacity);
+        prodDates = Arrays.copyOf(prodDates, capacity);
+        used = Arrays.copyOf(used, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        crewSizes = Arrays.copyOf(crewSizes, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+    }
+
+    // Условия фильтра в примитивном виде; границы и обработка NULL - как в ShipServiceImpl.select*.
+    private final class Matcher {
+        final String name;
+        final String planet;
+        final int shipType;
+        final int used;
+        final boolean byProdDate;
+        final long prodDateFrom;
+        final long prodDateTo;
+        final boolean bySpeed;
+        final double minSpeed;
+        final double maxSpeed;
+        final boolean byCrewSize;
+        final int minCrewSize;
+        final int maxCrewSize;
+        final boolean byRating;
+        final double minRating;
+        final double maxRating;
+        final boolean byText;
+        // те же границы для RangeBitmaps (null - без ограничения)
+        final Double fromProdDate;
+        final Double toProdDate;
+        final Double fromSpeed;
+        final Double toSpeed;
+        final Double fromCrewSize;
+        final Double toCrewSize;
+        final Double fromRating;
+        final Double toRating;
+
+        Matcher(ShipFilter filter) {
+            name = filter.getName();
+            planet = filter.getPlanet();
+            shipType = filter.getShipType() == null ? -1 : filter.getShipType().ordinal();
+            used = filter.getIsUsed() == null ? -1 : (filter.getIsUsed() ? 1 : 0);
+            byProdDate = filter.getAfter() != null || filter.getBefore() != null;
+            prodDateFrom = ShipFilter.prodDateFrom(filter.getAfter());
+            prodDateTo = ShipFilter.prodDateTo(filter.getAfter(), filter.getBefore());
+            bySpeed = filter.getMinSpeed() != null || filter.getMaxSpeed() != null;
+            minSpeed = filter.getMinSpeed() == null ? Double.NEGATIVE_INFINITY : filter.getMinSpeed();
+            maxSpeed = filter.getMaxSpeed() == null ? Double.POSITIVE_INFINITY : filter.getMaxSpeed();
+            byCrewSize = filter.getMinCrewSize() != null || filter.getMaxCrewSize() != null;
+            minCrewSize = filter.getMinCrewSize() == null ? Integer.MIN_VALUE : filter.getMinCrewSize();
+            maxCrewSize = filter.getMaxCrewSize() == null ? Integer.MAX_VALUE : filter.getMaxCrewSize();
+            byRating = filter.getMinRating() != null || filter.getMaxRating() != null;
+            minRating = filter.getMinRating() == null ? Double.NEGATIVE_INFINITY : filter.getMinRating();
+            maxRating = filter.getMaxRating() == null ? Double.POSITIVE_INFINITY : filter.getMaxRating();
+            byText = name != null || planet != null;
+            fromProdDate = filter.getAfter() == null ? null : (double) prodDateFrom;
+            toProdDate = filter.getBefore() == null ? null : (double) prodDateTo;
+            fromSpeed = filter.getMinSpeed();
+            toSpeed = filter.getMaxSpeed();
+            fromCrewSize = filter.getMinCrewSize() == null ? null : filter.getMinCrewSize().doubleValue();
+            toCrewSize = filter.getMaxCrewSize() == null ? null : filter.getMaxCrewSize().doubleValue();
+            fromRating = filter.getMinRating();
+            toRating = filter.getMaxRating();
+        }
+
+        // NaN и NULL_* не проходят ни одно условие - как NULL в SQL.
+        boolean matches(int slot) {
+            if (bySpeed && !(speeds[slot] >= minSpeed && speeds[slot] <= maxSpeed)) {
+                return false;
+            }
+            if (byRating && !(ratings[slot] >= minRating && ratings[slot] <= maxRating)) {
+                return false;
+            }
+            if (byCrewSize) {
+                int crewSize = crewSizes[slot];
+                if (crewSize == ShipView.NULL_INT || crewSize < minCrewSize || crewSize > maxCrewSize) {
+                    return false;
+                }
+            }
+            if (byProdDate) {
+                long prodDate = prodDates[slot];
+                if (prodDate == ShipView.NULL_LONG || prodDate < prodDateFrom || prodDate > prodDateTo) {
+                    return false;
+                }
+            }
+            if (name != null && (names[slot] == null || !names[slot].contains(name))) {
+                return false;
+            }
+            return planet == null || (planets[slot] != null && planets[slot].contains(planet));
+        }
+    }
+
+    // Ограниченная куча позиций: хранит limit лучших (наименьших в порядке сортировки) строк, на вершине - худшая из них.
+    private final class SlotHeap {
+        private final int[] heap;
+        private final int sortField;
+        private int count;
+
+        SlotHeap(int limit, int sortField) {
+            this.heap = new int[limit];
+            this.sortField = sortField;
+        }
+
+        int capacity() {
+            return heap.length;
+        }
+
+        // Добавление строк из кучи другой части (при слиянии параллельного просмотра).
+        void offerAll(SlotHeap other) {
+            for (int i = 0; i < other.count; i++) {
+                offer(other.heap[i]);
+            }
+        }
+
+        void offer(int slot) {
+            if (count < heap.length) {
+                heap[count] = slot;
+                siftUp(count++);
+            } else if (heap.length > 0 && compare(slot, heap[0], sortField) < 0) {
+                heap[0] = slot;
+                siftDown(0, count);
+            }
+        }
+
+        // Содержимое кучи по возрастанию (куча при этом разбирается).
+        int[] drainSorted() {
+            for (int end = count - 1; end > 0; end--) {
+                int top = heap[0];
+                heap[0] = heap[end];
+                heap[end] = top;
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(heap, count);
+        }
+
+        private void siftUp(int index) {
+            int slot = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(heap[parent], slot, sortField) >= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = slot;
+        }
+
+        private void siftDown(int index, int end) {
+            int slot = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    break;
+                }
+                if (child + 1 < end && compare(heap[child + 1], heap[child], sortField) > 0) {
+                    child++;
+                }
+                if (compare(slot, heap[child], sortField) >= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = slot;
+        }
+    }
+
+    // Хеш-таблица id -> позиция без упаковки в Long/Integer (открытая адресация, линейное пробирование).
+    private static final class LongIntMap {
+        private long[] keys = new long[16];
+        private int[] values = newValues(16);
+        private int count;
+
+        private static int[] newValues(int capacity) {
+            int[] values = new int[capacity];
+            Arrays.fill(values, -1);
+            return values;
+        }
+
+        private int index(long key, int mask) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = index(key, mask); values[i] >= 0; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if (2 * (count + 1) > keys.length) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] >= 0) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            count++;
+        }
+
+        // Удаление со сдвигом следующих элементов цепочки, чтобы поиск не обрывался на "дырке".
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = index(key, mask);
+            while (values[i] >= 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] < 0) {
+                return -1;
+            }
+            int removed = values[i];
+            count--;
+            int hole = i;
+            for (int j = (hole + 1) & mask; values[j] >= 0; j = (j + 1) & mask) {
+                int home = index(keys[j], mask);
+                // элемент j можно перенести в дырку, если его "домашняя" ячейка не лежит между дыркой и j
+                boolean movable = hole <= j ? (home <= hole || home > j) : (home <= hole && home > j);
+                if (movable) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            values[hole] = -1;
+            return removed;
+        }
+
+        void clear() {
+            keys = new long[16];
+            values = newValues(16);
+            count = 0;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = newValues(capacity);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] >= 0) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+    }
+}
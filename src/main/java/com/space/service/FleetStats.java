@@ -0,0 +1,199 @@
+package com.space.service;
+
+/*
+ Агрегаты по всем кораблям без фильтров (ShipStats для каждого варианта groupBy), которые поддерживаются в памяти:
+ при старте считаются одним проходом курсора по таблице, дальше ShipServiceImpl сообщает сюда о каждом
+ созданном, изменённом и удалённом корабле (после фиксации транзакции). Поэтому GET /rest/ships/stats без фильтров
+ не обращается к БД, а его стоимость зависит от числа групп и корзин гистограмм (ShipStats), но не от числа кораблей.
+ Выключается свойством ship.stats.incremental - тогда и запросы без фильтров считаются в БД.
+ */
+
+import com.space.model.EntityShip;
+import com.space.model.ShipView;
+import com.space.repository.InterfaceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class FleetStats implements SmartInitializingSingleton {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FleetStats.class);
+
+    // поля группировки GET /rest/ships/stats; null - одна группа из всех кораблей
+    public static final String[] GROUP_FIELDS = {null, "planet", "shipType", "isUsed", "year"};
+
+    private final boolean enabled;
+    private final int fetchSize;
+    private final InterfaceRepository interfaceRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ShipRating shipRating = new ShipRating(TimeZone.getDefault());
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, ShipStats> stats = new HashMap<>();
+
+    public FleetStats(InterfaceRepository interfaceRepository, PlatformTransactionManager transactionManager,
+                      Environment environment) {
+        this.interfaceRepository = interfaceRepository;
+        this.transactionManager = transactionManager;
+        this.enabled = environment.getRequiredProperty("ship.stats.incremental", Boolean.class);
+        this.fetchSize = environment.getRequiredProperty("ship.export.fetch-size", Integer.class);
+        clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    // Полный пересчёт по таблице. На время пересчёта запросы ждут.
+    public void reload() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            clear();
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            transactionTemplate.execute(status -> {
+                interfaceRepository.scroll(null, Sort.by("id"), fetchSize, ship -> apply(ShipView.of(ship), 1));
+                return null;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LOGGER.info("Fleet stats loaded in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Агрегаты для groupBy (одно из GROUP_FIELDS) без копирования: в JSON они пишутся под read lock.
+    public ShipStats stats(String groupBy) {
+        lock.readLock().lock();
+        try {
+            return stats.get(groupBy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<EntityShip> ships) {
+        if (!enabled || ships.isEmpty()) {
+            return;
+        }
+        List<ShipView> added = views(ships);
+        TransactionHooks.afterCommit(() -> apply(added, 1));
+    }
+
+    public void add(EntityShip ship) {
+        addAll(Collections.singletonList(ship));
+    }
+
+    public void removeAll(Collection<EntityShip> ships) {
+        if (!enabled || ships.isEmpty()) {
+            return;
+        }
+        List<ShipView> removed = views(ships);
+        TransactionHooks.afterCommit(() -> apply(removed, -1));
+    }
+
+    public void remove(EntityShip ship) {
+        removeAll(Collections.singletonList(ship));
+    }
+
+    // Изменение корабля: before - его значения до изменения (снимок, сделанный до применения изменений).
+    public void replace(ShipView before, EntityShip after) {
+        if (!enabled) {
+            return;
+        }
+        ShipView changed = ShipView.of(after);
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                apply(before, -1);
+                apply(changed, 1);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static List<ShipView> views(Collection<EntityShip> ships) {
+        List<ShipView> views = new ArrayList<>(ships.size());
+        for (EntityShip ship : ships) {
+            views.add(ShipView.of(ship));
+        }
+        return views;
+    }
+
+    private void apply(List<ShipView> ships, int sign) {
+        lock.writeLock().lock();
+        try {
+            for (ShipView ship : ships) {
+                apply(ship, sign);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Добавление (sign = 1) или вычитание (sign = -1) корабля во всех группировках. Вызывается под write lock.
+    private void apply(ShipView ship, int sign) {
+        for (String groupBy : GROUP_FIELDS) {
+            ShipStats groupStats = stats.get(groupBy);
+            Object key = key(groupBy, ship);
+            ShipStats.Group group = groupStats.group(key);
+            group.addShips(sign);
+            if (!Double.isNaN(ship.getSpeed())) {
+                group.getSpeed().add(ship.getSpeed(), sign);
+            }
+            if (ship.hasCrewSize()) {
+                group.getCrewSize().add(ship.getCrewSize(), sign);
+            }
+            if (!Double.isNaN(ship.getRating())) {
+                group.getRating().add(ship.getRating(), sign);
+            }
+            groupStats.removeIfEmpty(key);
+        }
+    }
+
+    // Ключ группы - то же значение, что возвращает БД для GROUP BY по этому полю.
+    private Object key(String groupBy, ShipView ship) {
+        if (groupBy == null) {
+            return null;
+        }
+        switch (groupBy) {
+            case "planet":
+                return ship.getPlanet();
+            case "shipType":
+                return ship.getShipType();
+            case "isUsed":
+                return ship.hasUsed() ? ship.isUsed() : null;
+            default:
+                return ship.hasProdDate() ? shipRating.yearOf(ship.getProdDateMillis()) : null;
+        }
+    }
+
+    private void clear() {
+        stats.clear();
+        for (String groupBy : GROUP_FIELDS) {
+            stats.put(groupBy, new ShipStats(groupBy, lock.readLock()));
+        }
+    }
+}
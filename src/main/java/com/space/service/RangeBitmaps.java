@@ -0,0 +1,116 @@
+package com.space.service;
+
+/*
+ Range-encoded битовые карты одной числовой колонки FleetIndex.
+ Диапазон значений [min, max] делится на BUCKETS равных корзин, и для каждой корзины i хранится карта atMost[i]:
+ позиции строк, у которых номер корзины не больше i. Тогда строки с корзиной в [from, to] - это
+ atMost[to] ANDNOT atMost[from - 1], то есть любое условие "от и до" стоит двух операций над картами.
+ Значения за пределами [min, max] попадают в крайние корзины, NULL (NaN) не попадает ни в одну.
+ Корзина содержит несколько разных значений, поэтому строки из крайних корзин условия проверяются точно (Matcher),
+ а строки из внутренних корзин подходят гарантированно.
+ */
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.function.IntToDoubleFunction;
+
+final class RangeBitmaps {
+
+    static final int BUCKETS = 32;
+
+    private final double min;
+    private final double step;
+    private final RoaringBitmap[] atMost = new RoaringBitmap[BUCKETS];
+
+    RangeBitmaps(double min, double max) {
+        this.min = min;
+        this.step = (max - min) / BUCKETS;
+        clear();
+    }
+
+    void clear() {
+        for (int i = 0; i < BUCKETS; i++) {
+            atMost[i] = new RoaringBitmap();
+        }
+    }
+
+    // Номер корзины не убывает вместе со значением - на этом держится точность внутренних корзин.
+    int bucket(double value) {
+        double bucket = Math.floor((value - min) / step);
+        if (bucket < 0) {
+            return 0;
+        }
+        return bucket >= BUCKETS ? BUCKETS - 1 : (int) bucket;
+    }
+
+    void add(int slot, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        for (int i = bucket(value); i < BUCKETS; i++) {
+            atMost[i].add(slot);
+        }
+    }
+
+    void remove(int slot, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        for (int i = bucket(value); i < BUCKETS; i++) {
+            atMost[i].remove(slot);
+        }
+    }
+
+    // Пакетное построение после загрузки: сначала карта каждой корзины, затем накопительное OR.
+    void build(IntToDoubleFunction values, int size) {
+        RoaringBitmap[] exact = new RoaringBitmap[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            exact[i] = new RoaringBitmap();
+        }
+        for (int slot = 0; slot < size; slot++) {
+            double value = values.applyAsDouble(slot);
+            if (!Double.isNaN(value)) {
+                exact[bucket(value)].add(slot);
+            }
+        }
+        RoaringBitmap accumulated = new RoaringBitmap();
+        for (int i = 0; i < BUCKETS; i++) {
+            accumulated = RoaringBitmap.or(accumulated, exact[i]);
+            atMost[i] = accumulated.clone();
+            atMost[i].runOptimize();
+        }
+    }
+
+    // Строки, которые могут подходить под from <= value <= to (граница null - без ограничения с этой стороны).
+    RoaringBitmap candidates(Double from, Double to) {
+        RoaringBitmap result = to == null ? atMost[BUCKETS - 1].clone() : atMost[bucket(to)].clone();
+        if (from != null && bucket(from) > 0) {
+            result.andNot(atMost[bucket(from) - 1]);
+        }
+        return result;
+    }
+
+    // Строки, которые подходят под условие гарантированно: их корзины лежат строго внутри границ.
+    RoaringBitmap certain(Double from, Double to) {
+        RoaringBitmap result;
+        if (to == null) {
+            result = atMost[BUCKETS - 1].clone();
+        } else if (bucket(to) == 0) {
+            return new RoaringBitmap();
+        } else {
+            result = atMost[bucket(to) - 1].clone();
+        }
+        if (from != null) {
+            result.andNot(atMost[bucket(from)]);
+        }
+        return result;
+    }
+
+    long sizeInBytes() {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : atMost) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.space.service;
+
+/*
+ Отчёт массовой операции над кораблями: сколько записей принято и отклонено,
+ и результат по каждой записи (её номер во входном массиве, id корабля, HTTP-статус и причина ошибки).
+ */
+
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class ShipBulkResult {
+
+    private int accepted;
+    private int rejected;
+    private final List<Item> items = new ArrayList<>();
+
+    public void accept(int index, Long id) {
+        accepted++;
+        items.add(new Item(index, id, HttpStatus.OK));
+    }
+
+    public void reject(int index, Long id, HttpStatus status) {
+        rejected++;
+        items.add(new Item(index, id, status));
+    }
+
+    // Упорядочивает результаты по номеру записи во входном массиве.
+    public ShipBulkResult sorted() {
+        items.sort(Comparator.comparingInt(Item::getIndex));
+        return this;
+    }
+
+    public int getAccepted() {
+        return accepted;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public static class Item {
+        private final int index;
+        private final Long id;
+        private final int status;
+        private final String error;
+
+        Item(int index, Long id, HttpStatus status) {
+            this.index = index;
+            this.id = id;
+            this.status = status.value();
+            this.error = status.is2xxSuccessful() ? null : status.getReasonPhrase();
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
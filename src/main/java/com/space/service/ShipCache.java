@@ -0,0 +1,75 @@
+package com.space.service;
+
+/*
+ Кеш кораблей по id в памяти приложения (read-through).
+ Ограничен по количеству записей (вытеснение Caffeine W-TinyLFU, близкое к LFU/LRU) и по времени жизни записи.
+ ShipServiceImpl сбрасывает запись при обновлении и удалении корабля, поэтому кеш не отдаёт устаревшие данные,
+ если БД меняется только через приложение.
+ Корабли хранятся как неизменяемые ShipView: так запись кеша занимает меньше памяти
+ и не может быть случайно изменена кодом, получившим её из кеша.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.space.model.ShipView;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+@Component
+public class ShipCache {
+
+    private final Cache<Long, ShipView> cache;
+
+    public ShipCache(Environment environment) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(environment.getRequiredProperty("ship.cache.maximum-size", Long.class))
+                .expireAfterWrite(environment.getRequiredProperty("ship.cache.ttl-seconds", Long.class), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    // Возвращает корабль из кеша или загружает его через loader. Если loader вернул null, в кеш ничего не попадает.
+    public ShipView get(Long id, Function<Long, ShipView> loader) {
+        return cache.get(id, loader);
+    }
+
+    // Корабль из кеша или null, без загрузки.
+    public ShipView getIfPresent(Long id) {
+        return cache.getIfPresent(id);
+    }
+
+    // Возвращает корабли по списку id; отсутствующие в кеше загружаются одним вызовом loader.
+    public Map<Long, ShipView> getAll(Iterable<Long> ids, Function<Iterable<? extends Long>, Map<Long, ShipView>> loader) {
+        return cache.getAll(ids, loader);
+    }
+
+    // Внутри транзакции запись сбрасывается ещё раз после её завершения: корабль, загруженный в кеш
+    // другим запросом до фиксации изменений, не останется в нём со старыми значениями.
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        TransactionHooks.afterCompletion(() -> cache.invalidate(id));
+    }
+
+    // Сбрасывает корабли с id в (afterId, lastId] - так же, как invalidate, но без перебора всех id диапазона.
+    public void invalidateRange(long afterId, long lastId) {
+        cache.asMap().keySet().removeIf(id -> id > afterId && id <= lastId);
+        TransactionHooks.afterCompletion(() -> cache.asMap().keySet().removeIf(id -> id > afterId && id <= lastId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
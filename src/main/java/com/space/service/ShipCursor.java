@@ -0,0 +1,100 @@
+package com.space.service;
+
+/*
+ Курсор для постраничного вывода "по ключу" (keyset / seek pagination).
+ Хранит значение поля сортировки и id последнего корабля на странице; следующая страница
+ начинается строго после этой пары, поэтому БД не нужно пропускать OFFSET строк.
+ Клиент получает курсор в виде непрозрачной строки (Base64 URL-safe).
+ */
+
+import com.space.model.EntityShip;
+import exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+public class ShipCursor {
+
+    private final String fieldName;
+    private final Object value;
+    private final Long id;
+
+    private ShipCursor(String fieldName, Object value, Long id) {
+        this.fieldName = fieldName;
+        this.value = value;
+        this.id = id;
+    }
+
+    // Курсор, указывающий на позицию сразу после корабля last при сортировке по полю fieldName.
+    public static ShipCursor after(String fieldName, EntityShip last) {
+        switch (fieldName) {
+            case "id":
+                return new ShipCursor(fieldName, last.getId(), last.getId());
+            case "speed":
+                return new ShipCursor(fieldName, last.getSpeed(), last.getId());
+            case "prodDate":
+                return new ShipCursor(fieldName, new Date(last.getProdDate().getTime()), last.getId());
+            case "rating":
+                return new ShipCursor(fieldName, last.getRating(), last.getId());
+            default:
+                throw new IllegalArgumentException("Unsupported sort field: " + fieldName);
+        }
+    }
+
+    // Разбирает строку курсора; курсор должен быть выдан для той же сортировки, иначе ошибка 400.
+    public static ShipCursor decode(String token, String expectedFieldName) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+        if (parts.length != 3 || !parts[0].equals(expectedFieldName)) {
+            throw new BadRequestException();
+        }
+
+        try {
+            Long id = Long.parseLong(parts[2]);
+            switch (parts[0]) {
+                case "id":
+                    return new ShipCursor(parts[0], id, id);
+                case "speed":
+                case "rating":
+                    return new ShipCursor(parts[0], Double.longBitsToDouble(Long.parseLong(parts[1])), id);
+                case "prodDate":
+                    return new ShipCursor(parts[0], new Date(Long.parseLong(parts[1])), id);
+                default:
+                    throw new BadRequestException();
+            }
+        } catch (NumberFormatException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    public String encode() {
+        String encodedValue;
+        if (value instanceof Double) {
+            // храним точные биты double, чтобы сравнение на равенство в БД не зависело от округления
+            encodedValue = Long.toString(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Date) {
+            encodedValue = Long.toString(((Date) value).getTime());
+        } else {
+            encodedValue = value.toString();
+        }
+        String raw = fieldName + ":" + encodedValue + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
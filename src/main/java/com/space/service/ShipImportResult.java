@@ -0,0 +1,93 @@
+package com.space.service;
+
+/*
+ Итог потокового импорта кораблей: сколько строк прочитано, принято и отклонено,
+ сколько заняла загрузка и средняя скорость (строк в секунду).
+ Ошибки запоминаются только для первых maxReportedErrors строк, чтобы отчёт по большому файлу
+ не рос вместе с количеством некорректных строк.
+ */
+
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ShipImportResult {
+
+    private long rows;
+    private long accepted;
+    private long rejected;
+    private long elapsedMillis;
+    private final List<Error> errors = new ArrayList<>();
+    private final int maxReportedErrors;
+
+    public ShipImportResult(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void accept(int count) {
+        rows += count;
+        accepted += count;
+    }
+
+    // row - номер строки данных во входном файле (с единицы, без учёта заголовка CSV).
+    void reject(long row, HttpStatus status) {
+        rows++;
+        rejected++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new Error(row, status));
+        }
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+    }
+
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    public static class Error {
+        private final long row;
+        private final int status;
+        private final String error;
+
+        Error(long row, HttpStatus status) {
+            this.row = row;
+            this.status = status.value();
+            this.error = status.getReasonPhrase();
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
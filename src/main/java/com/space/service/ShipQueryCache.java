@@ -0,0 +1,94 @@
+package com.space.service;
+
+/*
+ Кеш результатов запросов GET /rest/ships и GET /rest/ships/count.
+ Ключ - номер поколения данных + каноническая строка фильтра + сортировка и страница.
+ Любое изменение кораблей через ShipServiceImpl увеличивает поколение: старые записи становятся недостижимыми
+ и вытесняются по весу или по TTL. Хранятся только id и общее количество, сами корабли берутся из ShipCache.
+ Поколение вместе с моментом запуска (getDataVersion) служит и ETag ответов со списками:
+ поколение после перезапуска снова начинается с нуля, а момент запуска - уже другой.
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.space.model.ShipFilter;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class ShipQueryCache {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<String, ShipQueryResult> cache;
+
+    public ShipQueryCache(Environment environment) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(environment.getRequiredProperty("ship.query-cache.maximum-weight", Long.class))
+                .<String, ShipQueryResult>weigher((key, result) -> result.getIds().length + 1)
+                .expireAfterWrite(environment.getRequiredProperty("ship.query-cache.ttl-seconds", Long.class), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    // Ключ нужно получить до выполнения запроса: если во время запроса данные изменятся,
+    // результат сохранится под старым поколением и никому не будет выдан.
+    public String pageKey(ShipFilter filter, Pageable pageable) {
+        return generation.get() + "|page|" + filter.toCanonicalString()
+                + "|sort=" + pageable.getSort()
+                + "|pageNumber=" + pageable.getPageNumber()
+                + "|pageSize=" + pageable.getPageSize();
+    }
+
+    public String countKey(ShipFilter filter) {
+        return generation.get() + "|count|" + filter.toCanonicalString();
+    }
+
+    public ShipQueryResult get(String key, Function<String, ShipQueryResult> loader) {
+        return cache.get(key, loader);
+    }
+
+    public ShipQueryResult getIfPresent(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, ShipQueryResult result) {
+        cache.put(key, result);
+    }
+
+    // Вызывается после каждого изменения кораблей. Внутри транзакции поколение увеличивается ещё раз после её завершения:
+    // результат, прочитанный до фиксации (или до обновления FleetIndex) уже под новым поколением,
+    // не будет выдан после неё ни из кеша, ни в ответ на If-None-Match. Вне транзакции увеличивается дважды сразу.
+    public void nextGeneration() {
+        generation.incrementAndGet();
+        TransactionHooks.afterCompletion(generation::incrementAndGet);
+    }
+
+    public void invalidateAll() {
+        nextGeneration();
+        cache.invalidateAll();
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    // Версия данных для ETag списков; как и ключ кеша, её нужно получить до выполнения запроса.
+    public String getDataVersion() {
+        return startedAt + "." + generation.get();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
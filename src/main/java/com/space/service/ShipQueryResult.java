@@ -0,0 +1,21 @@
+package com.space.service;
+
+// Результат запроса списка кораблей в компактном виде для ShipQueryCache: id кораблей страницы и общее количество.
+
+public class ShipQueryResult {
+    private final long[] ids;
+    private final long total;
+
+    public ShipQueryResult(long[] ids, long total) {
+        this.ids = ids;
+        this.total = total;
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,112 @@
+package com.space.service;
+
+/*
+ Расчёт рейтинга корабля и проверка года выпуска без выделения памяти.
+ Год берётся из миллисекунд чистой арифметикой (смещение часового пояса + перевод дней в дату
+ по пролептическому григорианскому календарю), а округление до сотых по правилу HALF_UP выполняется
+ над double без BigDecimal. Результат совпадает с прежним расчётом через GregorianCalendar и
+ BigDecimal.valueOf(...).setScale(2, HALF_UP) - это проверяет ShipRatingTest на всей области значений.
+ Текущий год и коэффициенты формулы задаются свойствами ship.rating.* (бин в AppConfig); по умолчанию - 3019, 80 и 0.5.
+ Тот же расчёт в SQL для пересчёта рейтингов в БД - ShipRatingWriter.
+ */
+
+import java.util.TimeZone;
+
+public final class ShipRating {
+
+    public static final int MIN_YEAR = 2800;
+    // значения параметров по умолчанию
+    public static final int CURRENT_YEAR = 3019;
+    public static final double COEFFICIENT = 80;
+    public static final double USED_COEFFICIENT = 0.5;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private final TimeZone timeZone;
+    private final int currentYear;
+    private final double coefficient;
+    private final double usedCoefficient;
+
+    public ShipRating(TimeZone timeZone) {
+        this(timeZone, CURRENT_YEAR, COEFFICIENT, USED_COEFFICIENT);
+    }
+
+    // currentYear - последний допустимый год выпуска, coefficient - множитель скорости,
+    // usedCoefficient - множитель для использованного корабля (для нового - 1)
+    public ShipRating(TimeZone timeZone, int currentYear, double coefficient, double usedCoefficient) {
+        if (currentYear < MIN_YEAR) {
+            throw new IllegalArgumentException("Current year " + currentYear + " is before " + MIN_YEAR);
+        }
+        this.timeZone = timeZone;
+        this.currentYear = currentYear;
+        this.coefficient = coefficient;
+        this.usedCoefficient = usedCoefficient;
+    }
+
+    public int getCurrentYear() {
+        return currentYear;
+    }
+
+    public double getCoefficient() {
+        return coefficient;
+    }
+
+    public double getUsedCoefficient() {
+        return usedCoefficient;
+    }
+
+    // Год даты epochMillis в часовом поясе timeZone (как Calendar.YEAR у GregorianCalendar в том же поясе)
+    // для неотрицательных epochMillis. Переполнения нет при любом long.
+    public int yearOf(long epochMillis) {
+        long days = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        long millisOfDay = Math.floorMod(epochMillis, MILLIS_PER_DAY) + timeZone.getOffset(epochMillis);
+        days += Math.floorDiv(millisOfDay, MILLIS_PER_DAY);
+        return yearOfEpochDay(days);
+    }
+
+    // Дата выпуска допустима, если она не раньше начала эпохи и год лежит в диапазоне 2800..currentYear.
+    // До 1970 года допустимых дат нет, поэтому отрицательные значения отклоняются сразу.
+    public boolean isValidProdDate(long epochMillis) {
+        if (epochMillis < 0) {
+            return false;
+        }
+        int year = yearOf(epochMillis);
+        return year >= MIN_YEAR && year <= currentYear;
+    }
+
+    // Рейтинг: coefficient * speed * k / (currentYear - год + 1), k = usedCoefficient для использованного корабля
+    // и 1 для нового, округление до сотых. По умолчанию 80 * speed * k / (3019 - год + 1), k = 0.5 или 1.
+    public double rating(double speed, boolean isUsed, int prodYear) {
+        double k = isUsed ? usedCoefficient : 1;
+        return roundHalfUp2((coefficient * speed * k) / (currentYear - prodYear + 1));
+    }
+
+    // Год по номеру дня от 1970-01-01 (алгоритм days_from_civil / civil_from_days, март - первый месяц года).
+    static int yearOfEpochDay(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long year = yearOfEra + era * 400 + (monthIndex >= 10 ? 1 : 0);
+        return (int) year;
+    }
+
+    /*
+     Округление до сотых с тем же результатом, что BigDecimal.valueOf(value).setScale(2, HALF_UP).doubleValue()
+     для неотрицательных value. BigDecimal.valueOf округляет десятичную запись Double.toString(value),
+     а она лежит в интервале чисел, которые округляются к value. Поэтому запись не меньше границы (2n + 1) / 200
+     тогда и только тогда, когда value не меньше double, ближайшего к этой границе, то есть (2n + 1) / 200.0.
+     */
+    static double roundHalfUp2(double value) {
+        long hundredths = (long) (value * 100);
+        while (value >= (2 * hundredths + 1) / 200.0) {
+            hundredths++;
+        }
+        while (hundredths > 0 && value < (2 * hundredths - 1) / 200.0) {
+            hundredths--;
+        }
+        return hundredths / 100.0;
+    }
+}
@@ -0,0 +1,121 @@
+package com.space.service;
+
+/*
+ Пересчёт рейтингов всех кораблей в БД по текущим параметрам ShipRating (после изменения ship.rating.*).
+ Идёт в фоновом потоке пачками по ship.rating.recompute-chunk-size кораблей в порядке id: каждая пачка - один UPDATE
+ в своей транзакции (ShipRatingWriter), поэтому блокируются только строки текущей пачки, а чтение и изменение кораблей
+ через приложение продолжаются во время пересчёта. Одновременно выполняется не больше одного пересчёта.
+ После пачки, в которой изменились рейтинги, её корабли удаляются из ShipCache и сбрасываются кеши результатов запросов;
+ FleetIndex и FleetStats перезагружаются из БД один раз в конце пересчёта.
+ */
+
+import com.space.repository.ShipRatingWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Component
+public class ShipRatingJob implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShipRatingJob.class);
+
+    private final ShipRatingWriter shipRatingWriter;
+    private final PlatformTransactionManager transactionManager;
+    private final ShipRating shipRating;
+    private final ShipCache shipCache;
+    private final ShipQueryCache shipQueryCache;
+    private final FleetIndex fleetIndex;
+    private final FleetStats fleetStats;
+    private final int chunkSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ship-rating-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile ShipRatingProgress progress;
+
+    public ShipRatingJob(ShipRatingWriter shipRatingWriter, PlatformTransactionManager transactionManager, ShipRating shipRating,
+                         ShipCache shipCache, ShipQueryCache shipQueryCache, FleetIndex fleetIndex, FleetStats fleetStats,
+                         Environment environment) {
+        this.shipRatingWriter = shipRatingWriter;
+        this.transactionManager = transactionManager;
+        this.shipRating = shipRating;
+        this.shipCache = shipCache;
+        this.shipQueryCache = shipQueryCache;
+        this.fleetIndex = fleetIndex;
+        this.fleetStats = fleetStats;
+        this.chunkSize = environment.getRequiredProperty("ship.rating.recompute-chunk-size", Integer.class);
+        this.progress = new ShipRatingProgress(shipRating);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // Запускает пересчёт, если он ещё не идёт, и возвращает его ход.
+    public synchronized ShipRatingProgress start() {
+        if (!progress.isRunning()) {
+            ShipRatingProgress started = new ShipRatingProgress(shipRating);
+            started.start();
+            progress = started;
+            executor.execute(() -> run(started));
+        }
+        return progress.copy();
+    }
+
+    // Ход текущего или последнего пересчёта (IDLE - пересчёт ещё не запускался).
+    public ShipRatingProgress getProgress() {
+        return progress.copy();
+    }
+
+    private void run(ShipRatingProgress progress) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            progress.setTotalShips(shipRatingWriter.count());
+            long afterId = Long.MIN_VALUE;
+            boolean changed = false;
+            ShipRatingWriter.Chunk chunk;
+            while ((chunk = shipRatingWriter.nextChunk(afterId, chunkSize)) != null) {
+                long chunkAfterId = afterId;
+                long lastId = chunk.getLastId();
+                int updated = transactionTemplate.execute(status -> {
+                    int count = shipRatingWriter.recompute(shipRating, chunkAfterId, lastId);
+                    if (count > 0) {
+                        shipCache.invalidateRange(chunkAfterId, lastId);
+                    }
+                    return count;
+                });
+                if (updated > 0) {
+                    shipQueryCache.nextGeneration();
+                    changed = true;
+                }
+                progress.chunk(chunk.getRows(), updated);
+                afterId = lastId;
+            }
+
+            if (changed) {
+                if (fleetIndex.isEnabled()) {
+                    fleetIndex.reload();
+                }
+                if (fleetStats.isEnabled()) {
+                    fleetStats.reload();
+                }
+            }
+            progress.finish(null);
+            ShipRatingProgress result = progress.copy();
+            LOGGER.info("Ship ratings recomputed: {} of {} ships changed in {} chunks, {} ms",
+                    result.getUpdatedShips(), result.getScannedShips(), result.getChunks(), result.getElapsedMillis());
+        } catch (RuntimeException e) {
+            LOGGER.error("Ship rating recompute failed", e);
+            progress.finish(e.toString());
+        }
+    }
+}
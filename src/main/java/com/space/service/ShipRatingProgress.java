@@ -0,0 +1,130 @@
+package com.space.service;
+
+/*
+ Ход пересчёта рейтингов (ShipRatingJob): параметры, по которым идёт пересчёт, сколько кораблей просмотрено из общего
+ числа на момент начала и у скольких рейтинг изменился, сколько пачек выполнено и сколько прошло времени.
+ Пересчёт изменяет объект из своего потока, а наружу отдаются копии (copy), поэтому поля ответа согласованы между собой.
+ В JSON попадают поля (как у остальных ответов REST); время и процент выполнения фиксируются при копировании.
+ */
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.concurrent.TimeUnit;
+
+public class ShipRatingProgress {
+
+    public enum State { IDLE, RUNNING, DONE, FAILED }
+
+    private State state;
+    private final int currentYear;
+    private final double coefficient;
+    private final double usedCoefficient;
+    private long totalShips;
+    private long scannedShips;
+    private long updatedShips;
+    private int chunks;
+    private double percent;
+    @JsonIgnore
+    private long startNanos;
+    private long elapsedMillis;
+    private String error;
+
+    ShipRatingProgress(ShipRating shipRating) {
+        this.state = State.IDLE;
+        this.currentYear = shipRating.getCurrentYear();
+        this.coefficient = shipRating.getCoefficient();
+        this.usedCoefficient = shipRating.getUsedCoefficient();
+    }
+
+    private ShipRatingProgress(ShipRatingProgress progress) {
+        this.state = progress.state;
+        this.currentYear = progress.currentYear;
+        this.coefficient = progress.coefficient;
+        this.usedCoefficient = progress.usedCoefficient;
+        this.totalShips = progress.totalShips;
+        this.scannedShips = progress.scannedShips;
+        this.updatedShips = progress.updatedShips;
+        this.chunks = progress.chunks;
+        // корабли, созданные во время пересчёта, тоже просматриваются, поэтому процент ограничен сотней
+        this.percent = progress.state == State.DONE ? 100
+                : progress.totalShips == 0 ? 0 : Math.min(100, 100.0 * progress.scannedShips / progress.totalShips);
+        this.elapsedMillis = progress.state == State.RUNNING
+                ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - progress.startNanos)
+                : progress.elapsedMillis;
+        this.error = progress.error;
+    }
+
+    synchronized ShipRatingProgress copy() {
+        return new ShipRatingProgress(this);
+    }
+
+    synchronized void start() {
+        state = State.RUNNING;
+        startNanos = System.nanoTime();
+    }
+
+    synchronized void setTotalShips(long totalShips) {
+        this.totalShips = totalShips;
+    }
+
+    synchronized void chunk(long scanned, long updated) {
+        scannedShips += scanned;
+        updatedShips += updated;
+        chunks++;
+    }
+
+    synchronized void finish(String error) {
+        state = error == null ? State.DONE : State.FAILED;
+        this.error = error;
+        elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    synchronized boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getCurrentYear() {
+        return currentYear;
+    }
+
+    public double getCoefficient() {
+        return coefficient;
+    }
+
+    public double getUsedCoefficient() {
+        return usedCoefficient;
+    }
+
+    public long getTotalShips() {
+        return totalShips;
+    }
+
+    public long getScannedShips() {
+        return scannedShips;
+    }
+
+    public long getUpdatedShips() {
+        return updatedShips;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    // доля просмотренных кораблей, %
+    public double getPercent() {
+        return percent;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
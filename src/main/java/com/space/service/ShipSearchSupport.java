@@ -0,0 +1,95 @@
+package com.space.service;
+
+/*
+ Определяет, можно ли искать по name/planet через FULLTEXT-индекс с парсером ngram
+ (migrations/V3__ship_ngram_fulltext.sql). Проверка выполняется один раз при старте:
+ индекс используется, только если БД - MySQL и на колонке действительно есть FULLTEXT-индекс.
+ В остальных случаях (например, H2 в тестах) поиск работает как раньше - через LIKE '%x%'.
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+@Component
+public class ShipSearchSupport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShipSearchSupport.class);
+
+    // Всё, кроме букв и цифр: на этих символах парсер ngram разрывает текст, n-граммы через них не строятся.
+    private static final Pattern DELIMITERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Set<String> ngramColumns = new HashSet<>();
+    private final int ngramTokenSize;
+    private boolean mySql;
+
+    @Autowired
+    public ShipSearchSupport(DataSource dataSource, Environment environment) {
+        this.ngramTokenSize = environment.getRequiredProperty("ship.search.ngram-token-size", Integer.class);
+
+        try {
+            Object productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            mySql = "MySQL".equals(productName);
+            if (mySql) {
+                ngramColumns.addAll(new JdbcTemplate(dataSource).query(
+                        "SHOW INDEX FROM ship WHERE Index_type = 'FULLTEXT'", (rs, rowNum) -> rs.getString("Column_name")));
+            }
+        } catch (MetaDataAccessException | DataAccessException e) {
+            LOGGER.warn("Could not detect FULLTEXT indexes on ship, falling back to LIKE search", e);
+        }
+        LOGGER.info("ngram FULLTEXT search enabled for ship columns: {}", ngramColumns);
+    }
+
+    // Для тестов: MySQL с FULLTEXT-индексами на ngramColumns.
+    ShipSearchSupport(Collection<String> ngramColumns, int ngramTokenSize) {
+        this.ngramColumns.addAll(ngramColumns);
+        this.ngramTokenSize = ngramTokenSize;
+        this.mySql = true;
+    }
+
+    // Текст поиска можно искать через индекс, если колонка проиндексирована и каждый кусок текста между
+    // разделителями (пробелами, знаками препинания) не короче n-граммы. Из более короткого куска парсер ngram
+    // не получает ни одной n-граммы, и MATCH отбросил бы строки, которые нашёл бы LIKE '%x%' - тогда только LIKE.
+    public boolean canUseNgramIndex(String column, String text) {
+        if (!ngramColumns.contains(column)) {
+            return false;
+        }
+        boolean hasRun = false;
+        for (String run : DELIMITERS.split(text)) {
+            if (run.isEmpty()) {
+                continue; // текст начинается с разделителя
+            }
+            if (run.codePointCount(0, run.length()) < ngramTokenSize) {
+                return false;
+            }
+            hasRun = true;
+        }
+        return hasRun;
+    }
+
+    // LIKE сравнивает строки посимвольно (как String.contains) везде, кроме MySQL:
+    // там сравнение зависит от collation колонки (обычно без учёта регистра и диакритики).
+    public boolean isLikeExact() {
+        return !mySql;
+    }
+
+    // Фраза для MATCH ... AGAINST в BOOLEAN MODE: текст в кавычках ищется как последовательность n-грамм,
+    // то есть как подстрока. Кавычки внутри текста заменяем пробелом (тоже разделитель), чтобы не сломать
+    // синтаксис запроса и не склеить соседние куски текста.
+    public String toPhrase(String text) {
+        return "\"" + text.replace('"', ' ') + "\"";
+    }
+}
@@ -5,11 +5,17 @@ package com.space.service;
  */
 
 import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface ShipService {
     /*
     Должны быть реализованы следующие возможности:
@@ -23,13 +29,26 @@ public interface ShipService {
         7. получать количество кораблей, которые соответствуют фильтрам
      */
     Page<EntityShip> getShipsList(Specification<EntityShip> specification, Pageable sortedBy);
+    Page<ShipView> getShipsList(ShipFilter filter, Pageable sortedBy);
+    List<EntityShip> getShipsAfter(Specification<EntityShip> specification, String sortField, ShipCursor cursor, int limit);
     Integer getShipsCount(Specification<EntityShip> specification);
+    Integer getShipsCount(ShipFilter filter);
+    void exportShips(ShipFilter filter, String sortField, Consumer<EntityShip> consumer);
+    ShipStats getShipStats(ShipFilter filter, String groupBy);
+    String getDataVersion();
     EntityShip createShip(EntityShip entityShip);
-    EntityShip getShip(Long id);
+    ShipView getShip(Long id);
     Long checkId(String id);
-    EntityShip updateShip(Long id, EntityShip ship);
+    EntityShip updateShip(Long id, EntityShip ship, Long expectedVersion);
     void deleteShip(Long id);
+    ShipBulkResult createShips(List<EntityShip> ships);
+    ShipBulkResult updateShips(List<EntityShip> ships);
+    ShipBulkResult deleteShips(List<Long> ids);
+    ShipImportResult importShips(Iterator<EntityShip> ships);
+    ShipRatingProgress recomputeRatings();
+    ShipRatingProgress getRatingProgress();
 
+    Specification<EntityShip> selectByFilter(ShipFilter filter);
     Specification<EntityShip> selectByName(String name);
     Specification<EntityShip> selectByPlanet(String planet);
     Specification<EntityShip> selectByShipType(ShipType shipType);
@@ -38,5 +57,6 @@ public interface ShipService {
     Specification<EntityShip> selectBySpeed(Double minSpeed, Double maxSpeed);
     Specification<EntityShip> selectByCrewSize(Integer minCrewSize, Integer maxCrewSize);
     Specification<EntityShip> selectByRating(Double minRating, Double maxRating);
+    Specification<EntityShip> selectAfter(ShipCursor cursor);
 
 }
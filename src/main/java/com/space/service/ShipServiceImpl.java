@@ -3,45 +3,277 @@ package com.space.service;
 // класс, реализующий соответствующие методы из интерфейса
 
 import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
 import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.metrics.ShipMetrics;
 import com.space.repository.InterfaceRepository;
+import com.space.repository.ShipBatchWriter;
 import exceptions.BadRequestException;
+import exceptions.ConflictException;
 import exceptions.NotFoundException;
+import exceptions.PreconditionFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Calendar;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service // обозначили, что это сервисный класс
 public class ShipServiceImpl implements ShipService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShipServiceImpl.class);
+
     @Autowired
     InterfaceRepository interfaceRepository; // связываем наш сервисный класс с интерфейсом из репозиторного слоя (для возможности вызова в данном классе нужных методов)
 
+    @Autowired
+    ShipSearchSupport shipSearchSupport; // знает, есть ли в БД ngram FULLTEXT-индексы для поиска по name/planet
+
+    @Autowired
+    ShipCache shipCache; // кеш кораблей по id для getShip
+
+    @Autowired
+    ShipQueryCache shipQueryCache; // кеш результатов запросов списка и количества кораблей
+
+    @Autowired
+    FleetIndex fleetIndex; // колоночная копия таблицы в памяти для фильтрации без БД (ship.fleet-index.enabled)
+
+    @Autowired
+    FleetStats fleetStats; // агрегаты GET /rest/ships/stats без фильтров, поддерживаются при каждой записи
+
+    @Autowired
+    ShipBatchWriter shipBatchWriter; // пакетная запись новых кораблей через JDBC
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Autowired
+    ShipRating shipRating; // рейтинг и проверка года выпуска без Calendar и BigDecimal, параметры ship.rating.*
+
+    @Autowired
+    ShipRatingJob shipRatingJob; // пересчёт рейтингов всех кораблей в БД
+
+    @Value("${db.batch-size}")
+    int batchSize; // размер пачки в массовых операциях
+
+    @Value("${ship.import.transaction-size}")
+    int importTransactionSize; // сколько строк импорта записывается в одной транзакции
+
+    @Value("${ship.import.max-reported-errors}")
+    int importMaxReportedErrors; // сколько отклонённых строк импорта перечисляется в отчёте
+
+    @Autowired
+    PlatformTransactionManager transactionManager; // транзакции импорта открываются вручную, по одной на пачку строк
+
+    @Value("${ship.export.fetch-size}")
+    int exportFetchSize; // сколько строк читается из курсора БД за раз при экспорте
+
+    @Autowired
+    ShipMetrics shipMetrics; // время построения условий фильтра (слой specification)
+
     // Returns all entities matching the given Specification and Sort.
     @Override
     public Page<EntityShip> getShipsList(Specification<EntityShip> specification, Pageable sortedBy) {
         return interfaceRepository.findAll(specification, sortedBy);
     }
 
+    // То же самое, но через кеш результатов: для повторяющихся запросов сохраняются только id страницы и общее количество,
+    // а корабли берутся из ShipCache, поэтому повторный запрос обходится без обращения к БД.
+    // Страница возвращается в компактном виде ShipView.
+    @Override
+    public Page<ShipView> getShipsList(ShipFilter filter, Pageable sortedBy) {
+        if (fleetIndex.isEnabled()) {
+            Page<ShipView> page = fleetIndex.find(filter, sortedBy);
+            if (page != null) {
+                return page;
+            }
+        }
+        String key = shipQueryCache.pageKey(filter, sortedBy);
+        ShipQueryResult cached = shipQueryCache.getIfPresent(key);
+        if (cached == null) {
+            Page<EntityShip> page = getShipsList(selectByFilter(filter), sortedBy);
+            long[] ids = page.getContent().stream().mapToLong(EntityShip::getId).toArray();
+            shipQueryCache.put(key, new ShipQueryResult(ids, page.getTotalElements()));
+            return page.map(ShipView::of);
+        }
+        return new PageImpl<>(getShipsByIds(cached.getIds()), sortedBy, cached.getTotal());
+    }
+
+    // Корабли в порядке переданных id; недостающие в ShipCache загружаются одним запросом findAllById.
+    private List<ShipView> getShipsByIds(long[] ids) {
+        List<Long> idList = LongStream.of(ids).boxed().collect(Collectors.toList());
+        Map<Long, ShipView> ships = shipCache.getAll(idList, missing -> {
+            List<Long> missingIds = new ArrayList<>();
+            missing.forEach(missingIds::add);
+            return interfaceRepository.findAllById(missingIds).stream()
+                    .collect(Collectors.toMap(EntityShip::getId, ShipView::of));
+        });
+
+        List<ShipView> result = new ArrayList<>(ids.length);
+        for (Long id : idList) {
+            ShipView ship = ships.get(id);
+            if (ship != null) {
+                result.add(ship);
+            }
+        }
+        return result;
+    }
+
+    // Keyset-пагинация: следующая страница начинается сразу после курсора (без OFFSET и без COUNT).
+    // При сортировке не по id добавляем id вторым ключом, чтобы порядок был однозначным.
+    @Override
+    public List<EntityShip> getShipsAfter(Specification<EntityShip> specification, String sortField, ShipCursor cursor, int limit) {
+        Sort sort = sortField.equals("id") ? Sort.by("id") : Sort.by(sortField).and(Sort.by("id"));
+        Specification<EntityShip> seekSpecification = cursor == null
+                ? specification
+                : Specification.where(specification).and(selectAfter(cursor));
+        return interfaceRepository.findSlice(seekSpecification, sort, limit);
+    }
+
+    // Считаем количество на стороне БД (SELECT COUNT), не загружая сами сущности в память.
     @Override
     public Integer getShipsCount(Specification<EntityShip> specification) {
-        return interfaceRepository.findAll(specification).size();
+        return Math.toIntExact(interfaceRepository.count(specification));
+    }
+
+    @Override
+    public Integer getShipsCount(ShipFilter filter) {
+        if (fleetIndex.isEnabled()) {
+            long count = fleetIndex.count(filter);
+            if (count >= 0) {
+                return Math.toIntExact(count);
+            }
+        }
+        ShipQueryResult result = shipQueryCache.get(shipQueryCache.countKey(filter),
+                key -> new ShipQueryResult(new long[0], interfaceRepository.count(selectByFilter(filter))));
+        return Math.toIntExact(result.getTotal());
+    }
+
+    // Потоковый экспорт: все корабли под фильтром по одному передаются в consumer прямо из курсора БД.
+    // Кеши не используются и не заполняются, сущности отсоединяются сразу после записи - память не растёт с числом строк.
+    @Override
+    @Transactional(readOnly = true)
+    public void exportShips(ShipFilter filter, String sortField, Consumer<EntityShip> consumer) {
+        Sort sort = sortField.equals("id") ? Sort.by("id") : Sort.by(sortField).and(Sort.by("id"));
+        interfaceRepository.scroll(selectByFilter(filter), sort, exportFetchSize, consumer);
+    }
+
+    // Агрегаты по кораблям под фильтром. Без фильтров берутся из FleetStats, иначе считаются в БД:
+    // COUNT(*) по группам и по одной гистограмме GROUP BY группа, корзина значения на каждую колонку (speed, crewSize,
+    // rating). Строк в ответах БД столько, сколько непустых пар (группа, корзина), а не кораблей.
+    @Override
+    @Transactional(readOnly = true)
+    public ShipStats getShipStats(ShipFilter filter, String groupBy) {
+        if (filter.isEmpty() && fleetStats.isEnabled()) {
+            return fleetStats.stats(groupBy);
+        }
+
+        ShipStats stats = new ShipStats(groupBy);
+        Specification<EntityShip> specification = selectByFilter(filter);
+        for (Tuple row : aggregate(specification, groupBy, null)) {
+            stats.group(groupBy == null ? null : row.get(0)).addShips(row.get(row.getElements().size() - 1, Long.class));
+        }
+        for (String field : new String[]{ShipStats.SPEED, ShipStats.CREW_SIZE, ShipStats.RATING}) {
+            for (Tuple row : aggregate(specification, groupBy, field)) {
+                int valueIndex = groupBy == null ? 0 : 1;
+                stats.group(groupBy == null ? null : row.get(0)).column(field)
+                        .addToBucket(row.get(valueIndex, Number.class).longValue(), row.get(valueIndex + 1, Long.class));
+            }
+        }
+        return stats;
+    }
+
+    // SELECT [группа,] [корзина,] COUNT(*) FROM ship WHERE <фильтр> [AND значение IS NOT NULL] GROUP BY [группа,] [корзина]
+    // Корзина - FLOOR(значение * scale + 0.5), как ShipStats.Column.bucket; для crewSize (scale 1) - само значение.
+    private List<Tuple> aggregate(Specification<EntityShip> specification, String groupBy, String field) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<EntityShip> root = query.from(EntityShip.class);
+
+        List<Expression<?>> keys = new ArrayList<>();
+        if (groupBy != null) {
+            keys.add(groupBy.equals("year")
+                    ? criteriaBuilder.function("YEAR", Integer.class, root.get("prodDate"))
+                    : root.get(groupBy));
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filterPredicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+        if (field != null) {
+            Path<Number> value = root.get(field);
+            long scale = ShipStats.scale(field);
+            keys.add(scale == 1 ? value : criteriaBuilder.function("FLOOR", Long.class,
+                    criteriaBuilder.sum(criteriaBuilder.prod(value, criteriaBuilder.literal((double) scale)),
+                            criteriaBuilder.literal(0.5))));
+            predicates.add(criteriaBuilder.isNotNull(value));
+        }
+
+        List<Selection<?>> selections = new ArrayList<>(keys);
+        selections.add(criteriaBuilder.count(root));
+        query.multiselect(selections)
+                .where(predicates.toArray(new Predicate[0]))
+                .groupBy(keys);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    // Версия данных для ETag списков: меняется при каждом изменении кораблей через сервис.
+    @Override
+    public String getDataVersion() {
+        return shipQueryCache.getDataVersion();
     }
 
     @Override
     public EntityShip createShip(EntityShip entityShip) {
+        prepareNewShip(entityShip);
+        // id и версию назначает БД; с переданным id save() пытался бы изменить существующий корабль
+        entityShip.setId(null);
+
+        EntityShip savedShip = interfaceRepository.save(entityShip);
+        fleetIndex.put(savedShip);
+        fleetStats.add(savedShip);
+        shipQueryCache.nextGeneration();
+        return savedShip;
+    }
+
+    // Проверки нового корабля, значение isUsed по умолчанию и рейтинг (общие для createShip и createShips).
+    private void prepareNewShip(EntityShip entityShip) {
         /*
         Мы не можем создать корабль, если:
             - указаны не все параметры из Data Params (кроме isUsed);
@@ -77,73 +309,83 @@ public class ShipServiceImpl implements ShipService {
 
         Double rating = computeRating(entityShip);
         entityShip.setRating(rating);
-
-        return interfaceRepository.save(entityShip);
     }
 
-    private void checkShipName(EntityShip entityShip) {
+    // проверки и расчёт рейтинга доступны внутри пакета, чтобы их можно было измерять бенчмарками (src/jmh)
+    void checkShipName(EntityShip entityShip) {
         String name = entityShip.getName();
         if (name.length() < 1 || name.length() > 50) {
             throw new BadRequestException();
         }
     }
 
-    private void checkShipPlanet(EntityShip entityShip) {
+    void checkShipPlanet(EntityShip entityShip) {
         String planet = entityShip.getPlanet();
         if (planet.length() < 1 || planet.length() > 50) {
             throw new BadRequestException();
         }
     }
 
-    private void checkShipProdDate(EntityShip entityShip) {
+    void checkShipProdDate(EntityShip entityShip) {
         Date prodDate = entityShip.getProdDate();
-        Calendar calendar = new GregorianCalendar();
-        calendar.setTime(prodDate);
-        int year = calendar.get(Calendar.YEAR);
-        if (year < 2800 || year > 3019) {
+        if (!shipRating.isValidProdDate(prodDate.getTime())) {
             throw new BadRequestException();
         }
     }
 
-    private void checkShipSpeed(EntityShip entityShip) {
+    void checkShipSpeed(EntityShip entityShip) {
         Double speed = entityShip.getSpeed();
         if (speed < 0.01 || speed > 0.99) {
             throw new BadRequestException();
         }
     }
 
-    private void checkShipCrewSize(EntityShip entityShip) {
+    void checkShipCrewSize(EntityShip entityShip) {
         Integer crewSize = entityShip.getCrewSize();
         if (crewSize < 1 || crewSize > 9999) {
             throw new BadRequestException();
         }
     }
 
-    private Double computeRating(EntityShip entityShip) {
-        double k = entityShip.getUsed() ? 0.5 : 1;
-        Calendar calendar = new GregorianCalendar();
-        calendar.setTime(entityShip.getProdDate());
-        int prodYear = calendar.get(Calendar.YEAR);
-        BigDecimal rating = BigDecimal.valueOf((80 * entityShip.getSpeed() * k) / (3019 - prodYear + 1)).setScale(2, RoundingMode.HALF_UP);
-        return rating.doubleValue();
+    Double computeRating(EntityShip entityShip) {
+        int prodYear = shipRating.yearOf(entityShip.getProdDate().getTime());
+        return shipRating.rating(entityShip.getSpeed(), entityShip.getUsed(), prodYear);
     }
 
+    // Один запрос findById вместо existsById + findById; горячие корабли отдаются из ShipCache без обращения к БД.
     @Override
-    public EntityShip getShip(Long id) {
-        if(!interfaceRepository.existsById(id)) {
+    public ShipView getShip(Long id) {
+        // Промах кеша загружает корабль через findById; отсутствующий корабль (null) в кеш не попадает.
+        ShipView ship = shipCache.get(id, key -> interfaceRepository.findById(key).map(ShipView::of).orElse(null));
+        if (ship == null) {
             throw new NotFoundException();
         }
-        // Optional<T> - Контейнерный объект, который может содержать или не содержать ненулевое значение. Если значение присутствует, isPresent () вернет true, а get () вернет значение.
-        return interfaceRepository.findById(id).get();
+        return ship;
     }
 
+    // Удаление одним DELETE: значения корабля для FleetStats берутся из ShipCache, а условие на версию
+    // гарантирует, что удалена именно эта версия. Без корабля в кеше (или если он там устарел): один DELETE по id,
+    // если агрегаты не ведутся, иначе SELECT ... FOR UPDATE и DELETE по id. Блокирующее чтение видит последнюю
+    // зафиксированную версию строки и не даёт изменить её до DELETE, поэтому повторять попытку не нужно.
+    // 404 - по числу удалённых строк (или по отсутствию строки при блокирующем чтении), без отдельной проверки existsById.
     @Override
+    @Transactional
     public void deleteShip(Long id) {
-        if(!interfaceRepository.existsById(id)) {
-            throw new NotFoundException();
+        ShipView deletedShip = shipCache.getIfPresent(id);
+        if (deletedShip == null || !deletedShip.hasVersion()
+                || interfaceRepository.deleteIfVersion(id, deletedShip.getVersion()) == 0) {
+            deletedShip = fleetStats.isEnabled() ? readShipForUpdate(id) : null;
+            if (interfaceRepository.deleteShipById(id) == 0) {
+                throw new NotFoundException();
+            }
         }
 
-        interfaceRepository.deleteById(id);
+        shipCache.invalidate(id);
+        fleetIndex.remove(id);
+        if (deletedShip != null) {
+            fleetStats.remove(deletedShip.toEntity());
+        }
+        shipQueryCache.nextGeneration();
     }
 
     @Override
@@ -167,19 +409,103 @@ public class ShipServiceImpl implements ShipService {
         return longId;
     }
 
+    // expectedVersion - версия из If-Match (null - без проверки).
+    // Корабль изменяется одним UPDATE ... WHERE id = ? AND version = ?: новые значения и рейтинг считаются в памяти
+    // из текущих значений корабля, которые берутся из ShipCache (если корабль там есть) или читаются одним SELECT.
+    // UPDATE не изменил строку - значения из кеша устарели: корабль перечитывается и UPDATE повторяется один раз
+    // (так же перечитывается корабль, если изменения не меняют значений из кеша - без записи версия не проверена).
+    // 404 - корабля нет, 412 - его версия не совпала с If-Match, 409 - корабль изменили между чтением и UPDATE.
     @Override
-    public EntityShip updateShip(Long id, EntityShip entityShip) {
-        EntityShip updatedShip = getShip(id);
+    @Transactional
+    public EntityShip updateShip(Long id, EntityShip entityShip, Long expectedVersion) {
+        ShipView cached = shipCache.getIfPresent(id);
+        if (cached != null && cached.hasVersion()
+                && (expectedVersion == null || expectedVersion == cached.getVersion())) {
+            checkShipUpdate(entityShip);
+            EntityShip updatedShip = writeUpdate(cached, entityShip, false);
+            if (updatedShip != null) {
+                return updatedShip;
+            }
+        }
+
+        ShipView before = readShip(id);
+        if (expectedVersion != null && expectedVersion != before.getVersion()) {
+            throw new PreconditionFailedException();
+        }
+        checkShipUpdate(entityShip);
+        EntityShip updatedShip = writeUpdate(before, entityShip, true);
+        if (updatedShip == null) {
+            throw new ConflictException();
+        }
+        return updatedShip;
+    }
+
+    // Читает корабль из БД и отсоединяет его от контекста Hibernate: повторное чтение в той же транзакции
+    // снова идёт в БД, а не возвращает прежний экземпляр.
+    private ShipView readShip(Long id) {
+        EntityShip ship = interfaceRepository.findById(id).orElseThrow(NotFoundException::new);
+        entityManager.detach(ship);
+        return ShipView.of(ship);
+    }
+
+    // То же с блокировкой строки до конца транзакции (см. InterfaceRepository.findByIdForUpdate).
+    private ShipView readShipForUpdate(Long id) {
+        EntityShip ship = interfaceRepository.findByIdForUpdate(id).orElseThrow(NotFoundException::new);
+        entityManager.detach(ship);
+        return ShipView.of(ship);
+    }
 
+    // Записывает before с изменениями, если версия корабля в БД всё ещё before.getVersion(); иначе null.
+    // Если изменения не меняют ни одного значения, запись не нужна (как при dirty checking в Hibernate) - но только
+    // когда before только что прочитан из БД (fromDatabase). Значения из ShipCache могут быть устаревшими, и без
+    // UPDATE их версия не проверяется, поэтому для них возвращается null и корабль перечитывается.
+    private EntityShip writeUpdate(ShipView before, EntityShip entityShip, boolean fromDatabase) {
+        EntityShip updatedShip = before.toEntity();
+        applyShipUpdate(updatedShip, entityShip);
+        if (ShipView.of(updatedShip).equals(before)) {
+            return fromDatabase ? updatedShip : null;
+        }
+        if (interfaceRepository.updateIfVersion(updatedShip, before.getVersion()) == 0) {
+            return null;
+        }
+        updatedShip.setVersion(before.getVersion() + 1);
+
+        Long id = updatedShip.getId();
+        shipCache.invalidate(id);
+        fleetIndex.put(updatedShip);
+        fleetStats.replace(before, updatedShip);
+        shipQueryCache.nextGeneration();
+        return updatedShip;
+    }
+
+    // Проверяем все переданные поля до изменения корабля, чтобы ошибка не оставила его изменённым наполовину.
+    private void checkShipUpdate(EntityShip entityShip) {
+        if (entityShip.getName() != null) {
+            checkShipName(entityShip);
+        }
+        if (entityShip.getPlanet() != null) {
+            checkShipPlanet(entityShip);
+        }
+        if (entityShip.getProdDate() != null) {
+            checkShipProdDate(entityShip);
+        }
+        if (entityShip.getSpeed() != null) {
+            checkShipSpeed(entityShip);
+        }
+        if (entityShip.getCrewSize() != null) {
+            checkShipCrewSize(entityShip);
+        }
+    }
+
+    // Переносим в корабль только переданные (не null) поля и пересчитываем рейтинг.
+    private void applyShipUpdate(EntityShip updatedShip, EntityShip entityShip) {
         String name = entityShip.getName();
         if (name != null) {
-            checkShipName(entityShip);
             updatedShip.setName(name);
         }
 
         String planet = entityShip.getPlanet();
         if (planet != null) {
-            checkShipPlanet(entityShip);
             updatedShip.setPlanet(planet);
         }
 
@@ -190,7 +516,6 @@ public class ShipServiceImpl implements ShipService {
 
         Date prodDate = entityShip.getProdDate();
         if (prodDate != null) {
-            checkShipProdDate(entityShip);
             updatedShip.setProdDate(prodDate);
         }
 
@@ -201,20 +526,248 @@ public class ShipServiceImpl implements ShipService {
 
         Double speed = entityShip.getSpeed();
         if (speed != null) {
-            checkShipSpeed(entityShip);
             updatedShip.setSpeed(speed);
         }
 
         Integer crewSize = entityShip.getCrewSize();
         if (crewSize != null) {
-            checkShipCrewSize(entityShip);
             updatedShip.setCrewSize(crewSize);
         }
 
         Double rating = computeRating(updatedShip);
         updatedShip.setRating(rating);
+    }
+
+    // Массовое создание: каждый корабль проверяется теми же правилами, что и в createShip;
+    // корректные записываются JDBC-пакетами, некорректные попадают в отчёт со статусом 400.
+    @Override
+    @Transactional
+    public ShipBulkResult createShips(List<EntityShip> ships) {
+        ShipBulkResult result = new ShipBulkResult();
+        List<EntityShip> validShips = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+
+        for (int i = 0; i < ships.size(); i++) {
+            EntityShip ship = ships.get(i);
+            try {
+                if (ship == null) {
+                    throw new BadRequestException();
+                }
+                ship.setId(null);
+                prepareNewShip(ship);
+                validShips.add(ship);
+                validIndexes.add(i);
+            } catch (BadRequestException e) {
+                result.reject(i, null, HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        shipBatchWriter.insertAll(validShips);
+        for (int i = 0; i < validShips.size(); i++) {
+            result.accept(validIndexes.get(i), validShips.get(i).getId());
+        }
+
+        if (!validShips.isEmpty()) {
+            shipQueryCache.nextGeneration();
+            fleetIndex.putAll(validShips);
+            fleetStats.addAll(validShips);
+        }
+        return result.sorted();
+    }
+
+    // Потоковый импорт: строки берутся из итератора пачками по importTransactionSize, каждая пачка проверяется
+    // по правилам createShip и записывается JDBC-пакетами в своей транзакции. Поэтому в памяти одновременно только
+    // одна пачка, а ошибка БД откатывает только текущую пачку - уже записанные остаются в базе: строки этой пачки
+    // отклоняются с кодом 500, импорт продолжается со следующей, и клиент в любом случае получает отчёт.
+    // Элемент null означает строку, которую не удалось разобрать; она отклоняется с кодом 400.
+    @Override
+    public ShipImportResult importShips(Iterator<EntityShip> ships) {
+        long start = System.nanoTime();
+        ShipImportResult result = new ShipImportResult(importMaxReportedErrors);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<EntityShip> chunk = new ArrayList<>(importTransactionSize);
+        long[] chunkRows = new long[importTransactionSize]; // номера строк входного файла для кораблей пачки
+        long row = 0;
+
+        while (ships.hasNext()) {
+            row++;
+            EntityShip ship = ships.next();
+            try {
+                if (ship == null) {
+                    throw new BadRequestException();
+                }
+                ship.setId(null);
+                prepareNewShip(ship);
+                chunkRows[chunk.size()] = row;
+                chunk.add(ship);
+            } catch (BadRequestException e) {
+                result.reject(row, HttpStatus.BAD_REQUEST);
+            }
+
+            if (chunk.size() == importTransactionSize) {
+                importChunk(transactionTemplate, chunk, chunkRows, result);
+            }
+        }
+        importChunk(transactionTemplate, chunk, chunkRows, result);
+
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+
+    private void importChunk(TransactionTemplate transactionTemplate, List<EntityShip> chunk, long[] chunkRows,
+                             ShipImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                shipBatchWriter.insertAll(chunk);
+                fleetIndex.putAll(chunk);
+                fleetStats.addAll(chunk);
+                return null;
+            });
+            result.accept(chunk.size());
+            shipQueryCache.nextGeneration();
+        } catch (DataAccessException | TransactionException e) {
+            LOGGER.error("Import of rows {}..{} rolled back", chunkRows[0], chunkRows[chunk.size() - 1], e);
+            for (int i = 0; i < chunk.size(); i++) {
+                result.reject(chunkRows[i], HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+        }
+        chunk.clear();
+    }
+
+    // Пересчёт рейтингов всех кораблей в БД по текущим параметрам (в фоне, пачками - см. ShipRatingJob).
+    @Override
+    public ShipRatingProgress recomputeRatings() {
+        return shipRatingJob.start();
+    }
+
+    @Override
+    public ShipRatingProgress getRatingProgress() {
+        return shipRatingJob.getProgress();
+    }
+
+    // Массовое обновление: корабли читаются пачками по batchSize одним findAllById,
+    // изменения уходят в БД пакетными UPDATE при flush, после чего контекст очищается (память не растёт).
+    @Override
+    @Transactional
+    public ShipBulkResult updateShips(List<EntityShip> ships) {
+        ShipBulkResult result = new ShipBulkResult();
+        boolean changed = false;
+
+        for (int from = 0; from < ships.size(); from += batchSize) {
+            List<EntityShip> chunk = ships.subList(from, Math.min(from + batchSize, ships.size()));
+            Map<Long, EntityShip> existing = findAllByIdAsMap(chunk.stream()
+                    .filter(ship -> ship != null && ship.getId() != null)
+                    .map(EntityShip::getId)
+                    .collect(Collectors.toList()));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                EntityShip changes = chunk.get(i);
+                int index = from + i;
+                if (changes == null || changes.getId() == null) {
+                    result.reject(index, null, HttpStatus.BAD_REQUEST);
+                    continue;
+                }
+                EntityShip updatedShip = existing.get(changes.getId());
+                if (updatedShip == null) {
+                    result.reject(index, changes.getId(), HttpStatus.NOT_FOUND);
+                    continue;
+                }
+                try {
+                    checkShipUpdate(changes);
+                } catch (BadRequestException e) {
+                    result.reject(index, changes.getId(), HttpStatus.BAD_REQUEST);
+                    continue;
+                }
+                ShipView before = ShipView.of(updatedShip);
+                applyShipUpdate(updatedShip, changes);
+                shipCache.invalidate(updatedShip.getId());
+                fleetIndex.put(updatedShip);
+                fleetStats.replace(before, updatedShip);
+                result.accept(index, updatedShip.getId());
+                changed = true;
+            }
+
+            entityManager.flush();
+            entityManager.clear();
+        }
+
+        if (changed) {
+            shipQueryCache.nextGeneration();
+        }
+        return result;
+    }
+
+    // Массовое удаление: существующие корабли удаляются одним DELETE на пачку, отсутствующие получают статус 404.
+    @Override
+    @Transactional
+    public ShipBulkResult deleteShips(List<Long> ids) {
+        ShipBulkResult result = new ShipBulkResult();
+        boolean changed = false;
+
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<Long, EntityShip> existing = findAllByIdAsMap(chunk.stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList()));
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                if (id == null) {
+                    result.reject(from + i, null, HttpStatus.BAD_REQUEST);
+                } else if (existing.containsKey(id)) {
+                    result.accept(from + i, id);
+                } else {
+                    result.reject(from + i, id, HttpStatus.NOT_FOUND);
+                }
+            }
+
+            if (!existing.isEmpty()) {
+                interfaceRepository.deleteInBatch(existing.values());
+                existing.keySet().forEach(shipCache::invalidate);
+                fleetIndex.removeAll(existing.keySet());
+                fleetStats.removeAll(existing.values());
+                changed = true;
+            }
+            entityManager.clear();
+        }
+
+        if (changed) {
+            shipQueryCache.nextGeneration();
+        }
+        return result;
+    }
 
-        return interfaceRepository.save(updatedShip);
+    private Map<Long, EntityShip> findAllByIdAsMap(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        return interfaceRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(EntityShip::getId, Function.identity()));
+    }
+
+    // Собираем общую Specification из всех фильтров запроса (пустые фильтры дают null и игнорируются).
+    // Условия строятся при выполнении запроса (toPredicate) - это время и замеряется как слой specification.
+    @Override
+    public Specification<EntityShip> selectByFilter(ShipFilter filter) {
+        Specification<EntityShip> specification = Specification.where(selectByName(filter.getName())
+                .and(selectByPlanet(filter.getPlanet()))
+                .and(selectByShipType(filter.getShipType()))
+                .and(selectByProdDate(filter.getAfter(), filter.getBefore()))
+                .and(selectByUse(filter.getIsUsed()))
+                .and(selectBySpeed(filter.getMinSpeed(), filter.getMaxSpeed()))
+                .and(selectByCrewSize(filter.getMinCrewSize(), filter.getMaxCrewSize()))
+                .and(selectByRating(filter.getMinRating(), filter.getMaxRating())));
+        return (root, query, criteriaBuilder) -> {
+            long start = System.nanoTime();
+            try {
+                return specification.toPredicate(root, query, criteriaBuilder);
+            } finally {
+                shipMetrics.specificationBuilt(System.nanoTime() - start);
+            }
+        };
     }
 
     @Override
@@ -225,7 +778,7 @@ public class ShipServiceImpl implements ShipService {
                 if (name == null) {
                     return null;
                 }
-                return criteriaBuilder.like(root.get("name"), "%" + name + "%");
+                return selectBySubstring(root, criteriaBuilder, "name", name);
             }
             // CriteriaBuilder - Используется для построения запросов критериев, составных выборок, выражений, предикатов, упорядочения.
         };
@@ -239,11 +792,23 @@ public class ShipServiceImpl implements ShipService {
                 if (planet == null) {
                     return null;
                 }
-                return criteriaBuilder.like(root.get("planet"), "%" + planet + "%");
+                return selectBySubstring(root, criteriaBuilder, "planet", planet);
             }
         };
     }
 
+    // Поиск по частичному совпадению. Если на колонке есть ngram FULLTEXT-индекс, сначала сужаем выборку через
+    // MATCH ... AGAINST (индекс), а LIKE оставляем для точной проверки - результат совпадает с обычным LIKE '%x%'.
+    private Predicate selectBySubstring(Root<EntityShip> root, CriteriaBuilder criteriaBuilder, String column, String text) {
+        Predicate like = criteriaBuilder.like(root.get(column), "%" + text + "%");
+        if (!shipSearchSupport.canUseNgramIndex(column, text)) {
+            return like;
+        }
+        Expression<Double> match = criteriaBuilder.function("ngram_match", Double.class,
+                root.get(column), criteriaBuilder.literal(shipSearchSupport.toPhrase(text)));
+        return criteriaBuilder.and(criteriaBuilder.greaterThan(match, 0.0), like);
+    }
+
     @Override
     public Specification<EntityShip> selectByShipType(ShipType shipType) {
         return new Specification<EntityShip>() {
@@ -267,22 +832,18 @@ public class ShipServiceImpl implements ShipService {
                 }
 
                 if (after == null) {
-                    Date tempBefore = new Date(before-1);
+                    Date tempBefore = new Date(ShipFilter.prodDateTo(null, before));
                     return criteriaBuilder.lessThanOrEqualTo(root.get("prodDate"), tempBefore);
                 }
 
                 if (before == null) {
-                    Date tempAfter = new Date(after);
+                    Date tempAfter = new Date(ShipFilter.prodDateFrom(after));
                     return criteriaBuilder.greaterThanOrEqualTo(root.get("prodDate"), tempAfter);
                 }
 
-                Calendar beforeCalendar = new GregorianCalendar();
-                beforeCalendar.setTime(new Date(before-1));
-                beforeCalendar.set(Calendar.HOUR, 0);
-                beforeCalendar.add(Calendar.MILLISECOND, -1);
-
-                Date tempAfter = new Date(after);
-                Date tempBefore = beforeCalendar.getTime();
+                // граница before считается так же, как раньше (через Calendar), см. ShipFilter.prodDateTo
+                Date tempAfter = new Date(ShipFilter.prodDateFrom(after));
+                Date tempBefore = new Date(ShipFilter.prodDateTo(after, before));
 
                 return criteriaBuilder.between(root.get("prodDate"), tempAfter, tempBefore);
             }
@@ -362,4 +923,28 @@ public class ShipServiceImpl implements ShipService {
             }
         };
     }
+
+    // Условие "строго после курсора": (field > value) OR (field = value AND id > lastId).
+    @Override
+    public Specification<EntityShip> selectAfter(ShipCursor cursor) {
+        return new Specification<EntityShip>() {
+            @Override
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            public Predicate toPredicate(Root<EntityShip> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                if (cursor == null) {
+                    return null;
+                }
+                if (cursor.getFieldName().equals("id")) {
+                    return criteriaBuilder.greaterThan(root.get("id"), cursor.getId());
+                }
+                Path<Comparable> field = root.get(cursor.getFieldName());
+                Comparable value = (Comparable) cursor.getValue();
+                return criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(field, value),
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(field, value),
+                                criteriaBuilder.greaterThan(root.get("id"), cursor.getId())));
+            }
+        };
+    }
 }
@@ -0,0 +1,274 @@
+package com.space.service;
+
+/*
+ Агрегаты по кораблям для GET /rest/ships/stats: группы по groupBy (planet, shipType, isUsed, year или одна группа),
+ в каждой - количество кораблей и для speed, crewSize, rating: count, min, max, sum, avg и перцентили p50/p90/p99.
+ Значения колонки хранятся как гистограмма из корзин фиксированной ширины (0.01 для speed и rating, 1 для crewSize):
+ номер корзины - floor(value * scale + 0.5), её значение - номер, делённый на scale. Число корзин ограничено
+ диапазоном значений, а не числом различных значений или кораблей, поэтому гистограмму можно и получить из БД
+ через GROUP BY того же выражения (ShipServiceImpl.aggregate), и поддерживать в памяти при каждой записи (FleetStats).
+ Все показатели - count, min, max, sum, avg и перцентили - считаются только по корзинам, поэтому оба способа дают
+ одинаковый результат, в том числе после удалений. Для значений, кратных ширине (целые и сотые), показатели точны,
+ для остальных (скорость при записи не округляется) - с точностью до половины ширины корзины.
+ Сумма хранится как целая сумма номеров корзин и не накапливает ошибку округления при добавлении и вычитании.
+ Перцентиль - ближайший ранг: корзина, до которой включительно набирается не меньше p% значений.
+ В JSON объект пишется сам (JsonSerializable); если задан lock, то под ним - так FleetStats отдаёт агрегаты,
+ которые поддерживаются в памяти, без копирования.
+ */
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+
+public class ShipStats implements JsonSerializable {
+
+    public static final String SPEED = "speed";
+    public static final String CREW_SIZE = "crewSize";
+    public static final String RATING = "rating";
+
+    private final String groupBy;
+    private final Map<Object, Group> groups = new HashMap<>();
+    private final Lock lock;
+
+    public ShipStats(String groupBy) {
+        this(groupBy, null);
+    }
+
+    // lock - блокировка, под которой объект изменяется; на время записи в JSON берётся она.
+    ShipStats(String groupBy, Lock lock) {
+        this.groupBy = groupBy;
+        this.lock = lock;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    // Группы по возрастанию ключа, группа с ключом null (колонка не заполнена) - первой.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Group> getGroups() {
+        List<Group> result = new ArrayList<>(groups.values());
+        result.sort(Comparator.comparing(group -> (Comparable) group.key, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    public Group group(Object key) {
+        return groups.computeIfAbsent(key, Group::new);
+    }
+
+    // Пустые группы (все корабли группы удалены) в ответ не попадают.
+    void removeIfEmpty(Object key) {
+        Group group = groups.get(key);
+        if (group != null && group.count == 0) {
+            groups.remove(key);
+        }
+    }
+
+    // Корзин на единицу значения колонки field: ширина корзины - 1 / scale.
+    public static long scale(String field) {
+        return CREW_SIZE.equals(field) ? Column.UNITS : Column.HUNDREDTHS;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        if (lock != null) {
+            lock.lock();
+        }
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("groupBy", groupBy);
+            generator.writeArrayFieldStart("groups");
+            for (Group group : getGroups()) {
+                group.write(generator, provider);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } finally {
+            if (lock != null) {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider, TypeSerializer typeSerializer)
+            throws IOException {
+        serialize(generator, provider);
+    }
+
+    public static class Group {
+        private final Object key;
+        private long count;
+        private final Column speed = new Column(scale(SPEED));
+        private final Column crewSize = new Column(scale(CREW_SIZE));
+        private final Column rating = new Column(scale(RATING));
+
+        Group(Object key) {
+            this.key = key;
+        }
+
+        public Object getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Column getSpeed() {
+            return speed;
+        }
+
+        public Column getCrewSize() {
+            return crewSize;
+        }
+
+        public Column getRating() {
+            return rating;
+        }
+
+        // Изменение количества кораблей группы (delta < 0 - удаление).
+        public void addShips(long delta) {
+            count += delta;
+        }
+
+        public Column column(String field) {
+            switch (field) {
+                case SPEED:
+                    return speed;
+                case CREW_SIZE:
+                    return crewSize;
+                default:
+                    return rating;
+            }
+        }
+
+        private void write(JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeStartObject();
+            provider.defaultSerializeField("key", key, generator);
+            generator.writeNumberField("count", count);
+            speed.write(SPEED, generator);
+            crewSize.write(CREW_SIZE, generator);
+            rating.write(RATING, generator);
+            generator.writeEndObject();
+        }
+    }
+
+    // Значения одной колонки в группе; NULL в них не попадает (как в агрегатных функциях SQL).
+    public static class Column {
+        static final long HUNDREDTHS = 100;
+        static final long UNITS = 1;
+
+        private final long scale; // корзин на единицу значения: ширина корзины 1 / scale
+        private final TreeMap<Long, Long> buckets = new TreeMap<>(); // номер корзины -> сколько значений в ней
+        private long count;
+        private long bucketSum; // сумма номеров корзин всех значений: сумма значений - bucketSum / scale
+
+        Column(long scale) {
+            this.scale = scale;
+        }
+
+        // Номер корзины значения; то же выражение БД вычисляет в GROUP BY (ShipServiceImpl.aggregate).
+        public static long bucket(double value, long scale) {
+            return (long) Math.floor(value * scale + 0.5);
+        }
+
+        // Изменение числа вхождений значения (occurrences < 0 - удаление).
+        public void add(double value, long occurrences) {
+            addToBucket(bucket(value, scale), occurrences);
+        }
+
+        // Изменение числа значений в корзине (occurrences < 0 - удаление).
+        public void addToBucket(long bucket, long occurrences) {
+            count += occurrences;
+            bucketSum += bucket * occurrences;
+            if (buckets.merge(bucket, occurrences, Long::sum) == 0) {
+                buckets.remove(bucket);
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Double getMin() {
+            return count == 0 ? null : value(buckets.firstKey());
+        }
+
+        public Double getMax() {
+            return count == 0 ? null : value(buckets.lastKey());
+        }
+
+        public Double getSum() {
+            return count == 0 ? null : value(bucketSum);
+        }
+
+        public Double getAvg() {
+            return count == 0 ? null : value(bucketSum) / count;
+        }
+
+        public Double getP50() {
+            return percentile(50);
+        }
+
+        public Double getP90() {
+            return percentile(90);
+        }
+
+        public Double getP99() {
+            return percentile(99);
+        }
+
+        private Double percentile(int percent) {
+            if (count == 0) {
+                return null;
+            }
+            long rank = (count * percent + 99) / 100; // ceil(count * percent / 100)
+            long seen = 0;
+            for (Map.Entry<Long, Long> entry : buckets.entrySet()) {
+                seen += entry.getValue();
+                if (seen >= rank) {
+                    return value(entry.getKey());
+                }
+            }
+            return value(buckets.lastKey());
+        }
+
+        // Значение корзины (или суммы номеров корзин): для сотых деление даёт тот же double, что и десятичная запись
+        // (0.29, а не 0.2900...01).
+        private double value(long bucket) {
+            return scale == UNITS ? bucket : bucket / (double) scale;
+        }
+
+        private void write(String name, JsonGenerator generator) throws IOException {
+            generator.writeObjectFieldStart(name);
+            generator.writeNumberField("count", count);
+            writeNumber("min", getMin(), generator);
+            writeNumber("max", getMax(), generator);
+            writeNumber("sum", getSum(), generator);
+            writeNumber("avg", getAvg(), generator);
+            writeNumber("p50", getP50(), generator);
+            writeNumber("p90", getP90(), generator);
+            writeNumber("p99", getP99(), generator);
+            generator.writeEndObject();
+        }
+
+        private static void writeNumber(String name, Double value, JsonGenerator generator) throws IOException {
+            if (value == null) {
+                generator.writeNullField(name);
+            } else {
+                generator.writeNumberField(name, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.space.service;
+
+/*
+ Отложенное применение изменений к структурам в памяти (FleetIndex, FleetStats):
+ внутри транзакции - после её фиксации, чтобы откат не оставлял в памяти несуществующих изменений;
+ вне транзакции - сразу.
+ afterCompletion выполняется после всех afterCommit (то есть уже после обновления FleetIndex и FleetStats)
+ и при откате тоже.
+ */
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    static void afterCompletion(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
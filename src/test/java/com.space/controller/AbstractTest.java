@@ -3,6 +3,9 @@ package com.space.controller;
 import com.space.config.AppConfig;
 import com.space.config.MyWebAppInit;
 import com.space.config.WebConfig;
+import com.space.service.FleetStats;
+import com.space.service.ShipCache;
+import com.space.service.ShipQueryCache;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,14 +28,36 @@ public abstract class AbstractTest {
 
     WebApplicationContext context;
     MockMvc mockMvc;
+    ShipCache shipCache;
+    ShipQueryCache shipQueryCache;
+    FleetStats fleetStats;
 
     @Autowired
     public void setContext(WebApplicationContext context) {
         this.context = context;
     }
 
+    @Autowired
+    public void setShipCache(ShipCache shipCache) {
+        this.shipCache = shipCache;
+    }
+
+    @Autowired
+    public void setShipQueryCache(ShipQueryCache shipQueryCache) {
+        this.shipQueryCache = shipQueryCache;
+    }
+
+    @Autowired
+    public void setFleetStats(FleetStats fleetStats) {
+        this.fleetStats = fleetStats;
+    }
+
     @Before
     public void setup() {
+        // test.sql пересоздаёт таблицу ship перед каждым тестом в обход приложения, поэтому кеши сбрасываем, а агрегаты пересчитываем
+        shipCache.invalidateAll();
+        shipQueryCache.invalidateAll();
+        fleetStats.reload();
         mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
     }
 }
@@ -0,0 +1,87 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BulkShipTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void bulkCreateReportsEachItemTest() throws Exception {
+        String body = "[" + TestsHelper.NORMAL_JSON + "," + TestsHelper.EMPTY_NAME_JSON + "," + TestsHelper.IS_USED_TRUE_JSON + "]";
+
+        JsonNode result = perform("/rest/ships/bulk", body);
+
+        assertEquals("Не правильное количество принятых кораблей при POST /rest/ships/bulk.", 2, result.get("accepted").asInt());
+        assertEquals("Не правильное количество отклонённых кораблей при POST /rest/ships/bulk.", 1, result.get("rejected").asInt());
+        assertEquals("Некорректный корабль должен получить статус 400.", 400, result.get("items").get(1).get("status").asInt());
+
+        long createdId = result.get("items").get(2).get("id").asLong();
+        ShipInfoTest created = readShip(createdId);
+        assertEquals("Созданный пакетом корабль не найден по id.", createdId, (long) created.id);
+        assertEquals("У созданного пакетом корабля не рассчитан рейтинг.", true, created.rating != null);
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/bulk.",
+                testsHelper.getAllShips().size() + 2, count());
+    }
+
+    //test2
+    @Test
+    public void bulkUpdateReportsEachItemTest() throws Exception {
+        String body = "[{\"id\": 1, \"name\": \"Bulk\"}, {\"id\": 415, \"name\": \"Missing\"}, {\"id\": 2, \"crewSize\": 0}, {\"name\": \"NoId\"}]";
+
+        JsonNode result = perform("/rest/ships/bulk/update", body);
+
+        assertEquals("Не правильное количество обновлённых кораблей при POST /rest/ships/bulk/update.", 1, result.get("accepted").asInt());
+        assertEquals("Несуществующий корабль должен получить статус 404.", 404, result.get("items").get(1).get("status").asInt());
+        assertEquals("Некорректное обновление должно получить статус 400.", 400, result.get("items").get(2).get("status").asInt());
+        assertEquals("Обновление без id должно получить статус 400.", 400, result.get("items").get(3).get("status").asInt());
+        assertEquals("Корабль не обновился при POST /rest/ships/bulk/update.", "Bulk", readShip(1).name);
+        assertEquals("Отклонённое обновление изменило корабль.", testsHelper.getShipInfosById(2).crewSize, readShip(2).crewSize);
+    }
+
+    //test3
+    @Test
+    public void bulkDeleteReportsEachItemTest() throws Exception {
+        JsonNode result = perform("/rest/ships/bulk/delete", "[1, 2, 426]");
+
+        assertEquals("Не правильное количество удалённых кораблей при POST /rest/ships/bulk/delete.", 2, result.get("accepted").asInt());
+        assertEquals("Несуществующий корабль должен получить статус 404.", 404, result.get("items").get(2).get("status").asInt());
+        mockMvc.perform(get("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/bulk/delete.",
+                testsHelper.getAllShips().size() - 2, count());
+    }
+
+    private JsonNode perform(String url, String body) throws Exception {
+        return mapper.readTree(mockMvc.perform(post(url)
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private ShipInfoTest readShip(long id) throws Exception {
+        return mapper.readValue(mockMvc.perform(get("/rest/ships/" + id).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+    }
+
+    private int count() throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,176 @@
+package com.space.controller;
+
+import com.space.config.CompressionFilter;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class CompressionTest extends AbstractTest {
+
+    private static final String PAGE_URL = "/rest/ships?pageSize=40";
+
+    @Before
+    public void addFilter() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean(CompressionFilter.class))
+                .build();
+    }
+
+    //test1
+    @Test
+    public void largeResponseCompressedTest() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get(PAGE_URL).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        MockHttpServletResponse compressed = mockMvc.perform(get(PAGE_URL)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Без Accept-Encoding ответ не должен сжиматься.", null, plain.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Большой ответ должен сжиматься.", "gzip", compressed.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue("В ответе должен быть Vary: Accept-Encoding.", compressed.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue("Сжатый ответ должен быть меньше исходного.",
+                compressed.getContentAsByteArray().length < plain.getContentAsByteArray().length);
+        assertEquals("После распаковки ответ должен совпадать с несжатым.",
+                plain.getContentAsString(), gunzip(compressed.getContentAsByteArray()));
+    }
+
+    //test2
+    @Test
+    public void smallResponseNotCompressedTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("Ответ меньше порога не должен сжиматься.", null, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("Неверный Content-Length несжатого ответа.",
+                response.getContentAsByteArray().length, response.getContentLength());
+        assertEquals("ETag несжатого ответа должен оставаться сильным.", "\"1.0\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    //test3
+    @Test
+    public void gzipRefusedTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get(PAGE_URL)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "*, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("С gzip;q=0 ответ не должен сжиматься.", null, response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    //test4
+    @Test
+    public void compressedResponseNotModifiedTest() throws Exception {
+        String eTag = mockMvc.perform(get(PAGE_URL)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue("ETag сжатого ответа должен быть слабым.", eTag.startsWith("W/\""));
+
+        mockMvc.perform(get(PAGE_URL)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    //test5
+    @Test
+    public void writeListenerOnlyForUncompressedResponseTest() throws Exception {
+        CompressionFilter filter = context.getBean(CompressionFilter.class);
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        };
+
+        // несжимаемый тип больше порога идёт в поток контейнера напрямую - слушатель передаётся ему
+        ListenerResponse passThrough = new ListenerResponse();
+        filter.doFilter(gzipRequest(), passThrough, (request, response) -> {
+            response.setContentType("image/png");
+            response.getOutputStream().write(new byte[4096]);
+            response.getOutputStream().setWriteListener(listener);
+        });
+        assertEquals("WriteListener несжатого ответа должен передаваться в поток контейнера.", listener, passThrough.listener);
+
+        // пока тело копится в буфере, неблокирующая запись невозможна
+        ListenerResponse buffering = new ListenerResponse();
+        IllegalStateException error = null;
+        try {
+            filter.doFilter(gzipRequest(), buffering, (request, response) -> {
+                response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+                response.getOutputStream().write(new byte[16]);
+                response.getOutputStream().setWriteListener(listener);
+            });
+        } catch (IllegalStateException e) {
+            error = e;
+        }
+        assertTrue("WriteListener до решения о сжатии должен отклоняться IllegalStateException.", error != null);
+        assertEquals("WriteListener не должен попадать в поток контейнера.", null, buffering.listener);
+    }
+
+    private static MockHttpServletRequest gzipRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PAGE_URL);
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        return request;
+    }
+
+    // Ответ, поток которого запоминает переданный WriteListener.
+    private static class ListenerResponse extends MockHttpServletResponse {
+        WriteListener listener;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                listener = writeListener;
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
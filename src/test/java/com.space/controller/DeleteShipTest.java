@@ -1,10 +1,16 @@
 package com.space.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.QueryBudget;
+import com.space.model.ShipView;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 
+import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class DeleteShipTest extends AbstractTest {
@@ -38,10 +44,60 @@ public class DeleteShipTest extends AbstractTest {
     public void deleteShipByIdTest() throws Exception {
         mockMvc.perform(delete("/rest/ships/1")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2));
 
         mockMvc.perform(get("/rest/ships/1")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    //test5
+    @Test
+    public void deleteCachedShipSingleStatementTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1));
+
+        mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+    }
+
+    //test6
+    @Test
+    public void deleteStaleCachedShipTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        ShipView stale = shipCache.getIfPresent(3L);
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\": 0.01}"))
+                .andExpect(status().isOk());
+        // запись кеша с прежней версией, как если бы её загрузили до изменения
+        shipCache.get(3L, key -> stale);
+
+        // DELETE по версии из кеша, SELECT ... FOR UPDATE и DELETE по id - без повторов
+        mockMvc.perform(delete("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(3));
+
+        mockMvc.perform(get("/rest/ships/3")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isNotFound());
+        String contentAsString = mockMvc.perform(get("/rest/ships/stats?groupBy=NONE")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode group = new ObjectMapper().readTree(contentAsString).get("groups").get(0);
+        assertEquals("Удалённый корабль должен исчезнуть из агрегатов.", 39L, group.get("count").asLong());
+        assertEquals("Из агрегатов должна быть вычтена актуальная скорость корабля, а не значение из кеша.",
+                0.03, group.get("speed").get("min").asDouble());
+    }
+}
@@ -0,0 +1,82 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ExportShipTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void exportAllAsNdjsonTest() throws Exception {
+        List<ShipInfoTest> actual = readNdjson("/rest/ships/export");
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/export без параметров.",
+                testsHelper.getAllShips(), actual);
+    }
+
+    //test2
+    @Test
+    public void exportWithFiltersAndOrderTest() throws Exception {
+        List<ShipInfoTest> actual = readNdjson("/rest/ships/export?isUsed=false&maxSpeed=0.6&order=RATING");
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.RATING,
+                testsHelper.getShipInfosByMaxSpeed(0.6,
+                        testsHelper.getShipInfosByIsUsed(false,
+                                testsHelper.getAllShips())));
+
+        assertEquals("Возвращается не правильный результат при запросе GET /rest/ships/export с параметрами isUsed, maxSpeed и order.",
+                expected, actual);
+    }
+
+    //test3
+    @Test
+    public void exportAsCsvTest() throws Exception {
+        String body = mockMvc.perform(get("/rest/ships/export?format=csv&planet=Earth"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\r\n");
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPlanet("Earth", testsHelper.getAllShips());
+
+        assertEquals("Не правильный заголовок CSV при запросе GET /rest/ships/export?format=csv.",
+                ShipExportWriter.CSV_HEADER, lines[0]);
+        assertEquals("Не правильное количество строк CSV при запросе GET /rest/ships/export?format=csv с параметром planet.",
+                expected.size() + 1, lines.length);
+        assertEquals("Не правильная первая строка CSV при запросе GET /rest/ships/export?format=csv.",
+                expected.get(0).id.toString(), lines[1].substring(0, lines[1].indexOf(',')));
+    }
+
+    //test4
+    @Test
+    public void exportWithUnknownFormatTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/export?format=xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<ShipInfoTest> readNdjson(String url) throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"));
+
+        List<ShipInfoTest> ships = new ArrayList<>();
+        for (String line : resultActions.andReturn().getResponse().getContentAsString().split("\n")) {
+            ships.add(mapper.readValue(line, ShipInfoTest.class));
+        }
+        return ships;
+    }
+}
@@ -0,0 +1,203 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import com.space.service.FleetIndex;
+import com.space.service.ShipService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "ship.fleet-index.enabled=true")
+public class FleetIndexTest extends AbstractTest {
+
+    private static final String[] ORDERS = {"id", "speed", "prodDate", "rating"};
+
+    @Autowired
+    private FleetIndex fleetIndex;
+
+    @Autowired
+    private ShipService shipService;
+
+    @Before
+    public void reloadIndex() {
+        // test.sql пересоздаёт таблицу в обход приложения, поэтому индекс загружается заново
+        fleetIndex.reload();
+    }
+
+    //test1
+    @Test
+    public void sameResultAsDatabaseTest() {
+        ShipFilter used = new ShipFilter();
+        used.setIsUsed(true);
+
+        ShipFilter typeAndSpeed = new ShipFilter();
+        typeAndSpeed.setShipType(ShipType.MERCHANT);
+        typeAndSpeed.setMinSpeed(0.5);
+
+        ShipFilter crewAndRating = new ShipFilter();
+        crewAndRating.setMinCrewSize(500);
+        crewAndRating.setMaxCrewSize(3000);
+        crewAndRating.setMaxRating(3.0);
+
+        ShipFilter text = new ShipFilter();
+        text.setName("e");
+        text.setPlanet("r");
+
+        ShipFilter prodDate = new ShipFilter();
+        prodDate.setAfter(32021340000000L);
+        prodDate.setBefore(32933840000000L);
+
+        ShipFilter before = new ShipFilter();
+        before.setBefore(32503680000000L);
+        before.setIsUsed(false);
+
+        for (ShipFilter filter : new ShipFilter[]{new ShipFilter(), used, typeAndSpeed, crewAndRating, text, prodDate, before}) {
+            for (String order : ORDERS) {
+                for (int pageNumber = 0; pageNumber < 3; pageNumber++) {
+                    assertSameAsDatabase(filter, PageRequest.of(pageNumber, 4, Sort.by(order)));
+                }
+            }
+            assertEquals("Количество из индекса отличается от количества в БД.",
+                    (long) shipService.getShipsCount(shipService.selectByFilter(filter)), fleetIndex.count(filter));
+        }
+    }
+
+    //test2
+    @Test
+    public void likeWildcardsGoToDatabaseTest() {
+        ShipFilter filter = new ShipFilter();
+        filter.setName("a%b");
+        assertEquals("Индекс не должен отвечать на фильтр с символами шаблона LIKE.", null, fleetIndex.find(filter, PageRequest.of(0, 3)));
+        assertEquals("Индекс не должен считать фильтр с символами шаблона LIKE.", -1L, fleetIndex.count(filter));
+    }
+
+    //test3
+    @Test
+    public void writesAreVisibleInIndexTest() throws Exception {
+        int size = fleetIndex.size();
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        assertEquals("Созданный корабль не попал в индекс.", size + 1, fleetIndex.size());
+
+        mockMvc.perform(post("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.11}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertEquals("Удалённый корабль остался в индексе.", size, fleetIndex.size());
+
+        ShipFilter slow = new ShipFilter();
+        slow.setMaxSpeed(0.11);
+        for (String order : ORDERS) {
+            assertSameAsDatabase(new ShipFilter(), PageRequest.of(0, 50, Sort.by(order)));
+        }
+        assertSameAsDatabase(slow, PageRequest.of(0, 50, Sort.by("id")));
+    }
+
+    //test4
+    @Test
+    public void randomRangesSameAsDatabaseTest() {
+        // границы попадают и внутрь корзин range-encoded карт, и на значения из test.sql
+        Random random = new Random(15);
+        for (int i = 0; i < 100; i++) {
+            ShipFilter filter = new ShipFilter();
+            if (random.nextBoolean()) {
+                filter.setMinSpeed(random.nextInt(100) / 100.0);
+            }
+            if (random.nextBoolean()) {
+                filter.setMaxSpeed(random.nextInt(100) / 100.0 + 0.2);
+            }
+            if (random.nextBoolean()) {
+                filter.setMinCrewSize(random.nextInt(5000));
+            }
+            if (random.nextBoolean()) {
+                filter.setMaxCrewSize(random.nextInt(5000) + 1000);
+            }
+            if (random.nextBoolean()) {
+                filter.setMinRating(random.nextInt(600) / 100.0);
+            }
+            if (random.nextBoolean()) {
+                filter.setMaxRating(random.nextInt(900) / 100.0);
+            }
+            if (random.nextInt(3) == 0) {
+                filter.setAfter(26192246400000L + random.nextInt(220) * 31556952000L);
+            }
+            if (random.nextInt(3) == 0) {
+                filter.setBefore(26192246400000L + random.nextInt(220) * 31556952000L);
+            }
+            if (random.nextInt(3) == 0) {
+                filter.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+            }
+            assertSameAsDatabase(filter, PageRequest.of(0, 5, Sort.by(ORDERS[random.nextInt(ORDERS.length)])));
+            assertEquals("Количество из индекса отличается от количества в БД: " + filter,
+                    (long) shipService.getShipsCount(shipService.selectByFilter(filter)), fleetIndex.count(filter));
+        }
+    }
+
+    //test5
+    @Test
+    public void idPagesAfterDeletesSameAsDatabaseTest() throws Exception {
+        // на место удалённой строки индекс переносит последнюю, поэтому позиции перестают идти в порядке id
+        for (long id : new long[]{3, 17, 18, 30}) {
+            mockMvc.perform(delete("/rest/ships/" + id).accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk());
+        }
+
+        ShipFilter used = new ShipFilter();
+        used.setIsUsed(true);
+        ShipFilter speed = new ShipFilter();
+        speed.setMinSpeed(0.15);
+        speed.setMaxSpeed(0.85);
+        for (ShipFilter filter : new ShipFilter[]{new ShipFilter(), used, speed}) {
+            for (int pageNumber = 0; pageNumber < 11; pageNumber++) {
+                assertSameAsDatabase(filter, PageRequest.of(pageNumber, 4, Sort.by("id")));
+            }
+        }
+    }
+
+    private void assertSameAsDatabase(ShipFilter filter, PageRequest pageable) {
+        Page<ShipView> fromIndex = fleetIndex.find(filter, pageable);
+        assertNotNull("Индекс не ответил на фильтр без шаблонов LIKE.", fromIndex);
+
+        Sort sort = pageable.getSort().and(Sort.by("id"));
+        Page<EntityShip> fromDatabase = shipService.getShipsList(shipService.selectByFilter(filter),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+
+        List<Long> indexIds = fromIndex.getContent().stream().map(ShipView::getId).collect(Collectors.toList());
+        List<Long> databaseIds = fromDatabase.getContent().stream().map(EntityShip::getId).collect(Collectors.toList());
+        assertEquals("Страница из индекса отличается от БД: " + pageable, databaseIds, indexIds);
+        assertEquals("Общее количество из индекса отличается от БД: " + pageable,
+                fromDatabase.getTotalElements(), fromIndex.getTotalElements());
+
+        for (int i = 0; i < indexIds.size(); i++) {
+            assertEquals("Корабль из индекса отличается от корабля из БД.",
+                    ShipView.of(fromDatabase.getContent().get(i)).toString(), fromIndex.getContent().get(i).toString());
+        }
+    }
+}
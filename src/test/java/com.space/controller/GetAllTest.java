@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
+import com.space.controller.utils.QueryBudget;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
@@ -28,7 +29,8 @@ public class GetAllTest extends AbstractTest {
     public void getAllWithoutFiltersReturnAllShips() throws Exception {
         ResultActions resultActions = mockMvc.perform(get("/rest/ships")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2));
 
         MvcResult result = resultActions.andReturn();
         String contentAsString = result.getResponse().getContentAsString();
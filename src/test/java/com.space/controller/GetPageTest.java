@@ -0,0 +1,58 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetPageTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void getPageWithoutFiltersReturnsFirstPageAndTotal() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/page")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode page = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        List<ShipInfoTest> actual = Arrays.asList(mapper.treeToValue(page.get("content"), ShipInfoTest[].class));
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(0, 3, testsHelper.getAllShips());
+
+        assertEquals("Возвращается не правильное содержимое при запросе GET /rest/ships/page.", expected, actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/page.",
+                testsHelper.getAllShips().size(), page.get("count").asInt());
+    }
+
+    //test2
+    @Test
+    public void getPageWithFiltersShipTypeMinSpeedPageNumber() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/page?shipType=TRANSPORT&minSpeed=0.3&pageNumber=1")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        JsonNode page = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+        List<ShipInfoTest> actual = Arrays.asList(mapper.treeToValue(page.get("content"), ShipInfoTest[].class));
+        List<ShipInfoTest> filtered = testsHelper.getShipInfosByMinSpeed(0.3,
+                testsHelper.getShipInfosByShipType(ShipType.TRANSPORT,
+                        testsHelper.getAllShips()));
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByPage(1, 3, filtered);
+
+        assertEquals("Возвращается не правильное содержимое при запросе GET /rest/ships/page с параметрами shipType, minSpeed и pageNumber.", expected, actual);
+        assertEquals("Возвращается не правильное количество при запросе GET /rest/ships/page с параметрами shipType, minSpeed и pageNumber.",
+                filtered.size(), page.get("count").asInt());
+    }
+}
@@ -0,0 +1,81 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class GetSeekTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void seekThroughAllPagesBySpeed() throws Exception {
+        List<ShipInfoTest> actual = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/rest/ships/seek?isUsed=false&order=SPEED&pageSize=4" + (cursor == null ? "" : "&cursor=" + cursor);
+            ResultActions resultActions = mockMvc.perform(get(url)
+                    .accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk());
+
+            JsonNode slice = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString());
+            actual.addAll(Arrays.asList(mapper.treeToValue(slice.get("content"), ShipInfoTest[].class)));
+            cursor = slice.get("next").isNull() ? null : slice.get("next").asText();
+        } while (cursor != null);
+
+        List<ShipInfoTest> expected = testsHelper.getShipInfosByOrder(ShipOrder.SPEED,
+                testsHelper.getShipInfosByIsUsed(false,
+                        testsHelper.getAllShips()));
+
+        assertEquals("Возвращается не правильный результат при постраничном обходе GET /rest/ships/seek с параметрами isUsed и order.", expected, actual);
+    }
+
+    //test2
+    @Test
+    public void seekWithCursorOfAnotherOrderTest() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get("/rest/ships/seek?order=RATING")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        String next = mapper.readTree(resultActions.andReturn().getResponse().getContentAsString()).get("next").asText();
+
+        mockMvc.perform(get("/rest/ships/seek?order=DATE&cursor=" + next)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test3
+    @Test
+    public void seekWithBrokenCursorTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/seek?cursor=test")
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void seekWithTooLargePageSizeTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/seek?pageSize=" + Integer.MAX_VALUE)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/seek?pageSize=" + (ShipController.MAX_SLICE_SIZE + 1))
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/rest/ships/seek?pageSize=" + ShipController.MAX_SLICE_SIZE)
+                .accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+    }
+}
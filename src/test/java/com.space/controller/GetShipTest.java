@@ -3,6 +3,7 @@ package com.space.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
+import com.space.controller.utils.QueryBudget;
 import org.junit.Test;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
@@ -44,7 +45,8 @@ public class GetShipTest extends AbstractTest {
 
         ResultActions resultActions = mockMvc.perform(get("/rest/ships/14")
                 .accept(MediaType.APPLICATION_JSON_UTF8))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1));
 
         String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
         ObjectMapper mapper = new ObjectMapper();
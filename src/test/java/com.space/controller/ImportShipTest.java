@@ -0,0 +1,124 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ImportShipTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    //test1
+    @Test
+    public void importNdjsonTest() throws Exception {
+        String body = compact(TestsHelper.NORMAL_JSON) + "\n"
+                + "{not a ship}\n"
+                + "\n"
+                + compact(TestsHelper.EMPTY_NAME_JSON) + "\n"
+                + compact(TestsHelper.IS_USED_TRUE_JSON) + "\n";
+
+        JsonNode result = perform("/rest/ships/import", "application/x-ndjson", body);
+
+        assertEquals("Не правильное количество строк при POST /rest/ships/import.", 4, result.get("rows").asInt());
+        assertEquals("Не правильное количество принятых строк при POST /rest/ships/import.", 2, result.get("accepted").asInt());
+        assertEquals("Не правильное количество отклонённых строк при POST /rest/ships/import.", 2, result.get("rejected").asInt());
+        assertEquals("Не правильный номер первой отклонённой строки.", 2, result.get("errors").get(0).get("row").asInt());
+        assertEquals("Не правильный номер второй отклонённой строки.", 3, result.get("errors").get(1).get("row").asInt());
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/import.",
+                testsHelper.getAllShips().size() + 2, count());
+    }
+
+    //test2
+    @Test
+    public void importExportedCsvTest() throws Exception {
+        String exported = mockMvc.perform(get("/rest/ships/export?format=csv&planet=Earth"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int exportedRows = exported.split("\r\n").length - 1;
+
+        JsonNode result = perform("/rest/ships/import?format=csv", "text/csv",
+                exported + "\"Bad, ship\",Earth,MILITARY,not-a-date,false,0.5,10,\r\n");
+
+        assertEquals("Не правильное количество принятых строк при POST /rest/ships/import?format=csv.",
+                exportedRows, result.get("accepted").asInt());
+        assertEquals("Не правильное количество отклонённых строк при POST /rest/ships/import?format=csv.",
+                1, result.get("rejected").asInt());
+
+        ShipInfoTest imported = mapper.readValue(mockMvc.perform(get("/rest/ships/" + (testsHelper.getAllShips().size() + 1)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+        ShipInfoTest original = testsHelper.getShipInfosByPlanet("Earth", testsHelper.getAllShips()).get(0);
+        assertEquals("Импортированный из CSV корабль отличается от выгруженного.",
+                original.name + original.crewSize + original.rating, imported.name + imported.crewSize + imported.rating);
+    }
+
+    //test3
+    @Test
+    public void importCsvWithoutRequiredColumnTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/import?format=csv")
+                .contentType("text/csv")
+                .content("name,planet\r\nA,B\r\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    //test4
+    @Test
+    public void databaseErrorRejectsOnlyItsChunkTest() throws Exception {
+        // ограничение, о котором проверки createShip не знают: INSERT пачки с таким кораблём упадёт в БД
+        jdbcTemplate.update("ALTER TABLE ship ADD CONSTRAINT ship_crew_size_check CHECK (crewSize <> 777)");
+        // 1500 строк - две пачки по ship.import.transaction-size=1000; ошибочная строка во второй
+        String ship = compact(TestsHelper.NORMAL_JSON);
+        StringBuilder body = new StringBuilder();
+        for (int row = 1; row <= 1500; row++) {
+            body.append(row == 1200 ? ship.replaceFirst("\"crewSize\":\\d+", "\"crewSize\":777") : ship).append("\n");
+        }
+
+        JsonNode result = perform("/rest/ships/import", "application/x-ndjson", body.toString());
+
+        assertEquals("Первая пачка должна быть принята.", 1000, result.get("accepted").asInt());
+        assertEquals("Строки пачки с ошибкой БД должны быть отклонены.", 500, result.get("rejected").asInt());
+        assertEquals("Не правильный номер первой отклонённой строки.", 1001, result.get("errors").get(0).get("row").asInt());
+        assertEquals("Строка пачки с ошибкой БД должна быть отклонена с кодом 500.",
+                500, result.get("errors").get(0).get("status").asInt());
+        assertEquals("Не правильное количество кораблей после POST /rest/ships/import.",
+                testsHelper.getAllShips().size() + 1000, count());
+    }
+
+    private JsonNode perform(String url, String contentType, String body) throws Exception {
+        return mapper.readTree(mockMvc.perform(post(url)
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private String compact(String json) throws Exception {
+        return mapper.readTree(json).toString();
+    }
+
+    private int count() throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
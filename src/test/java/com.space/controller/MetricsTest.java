@@ -0,0 +1,49 @@
+package com.space.controller;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class MetricsTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void requestMetricsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships?name=a").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        String scrape = scrape();
+        assertTrue("Нет времени запросов по шаблону URI.",
+                scrape.contains("ship_http_requests_seconds_count{exception=\"None\",method=\"GET\",status=\"200\",uri=\"/rest/ships/{id}\",}"));
+        assertTrue("Нет перцентилей времени запросов.", scrape.contains("quantile=\"0.999\""));
+        assertTrue("Нет числа SQL-выражений на запрос.", scrape.contains("ship_http_requests_statements_count{method=\"GET\",uri=\"/rest/ships\",}"));
+        assertTrue("Нет времени выполнения SQL.", scrape.contains("ship_layer_seconds_count{layer=\"db\",}"));
+        assertTrue("Нет времени построения Specification.", scrape.contains("ship_layer_seconds_count{layer=\"specification\",}"));
+        assertTrue("Нет времени записи JSON.", scrape.contains("ship_layer_seconds_count{layer=\"serialize\",}"));
+        assertTrue("Нет метрик пула соединений.", scrape.contains("hikaricp_connections"));
+    }
+
+    //test2
+    @Test
+    public void errorMetricsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/0").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isBadRequest());
+
+        String scrape = scrape();
+        assertTrue("Нет счётчика ошибок по типу исключения.",
+                scrape.contains("ship_http_errors_total{exception=\"BadRequestException\",uri=\"/rest/ships/{id}\",}"));
+        assertTrue("Неверный статус запроса с ошибкой.",
+                scrape.contains("ship_http_requests_seconds_count{exception=\"BadRequestException\",method=\"GET\",status=\"400\""));
+    }
+
+    private String scrape() throws Exception {
+        return mockMvc.perform(get("/rest/stats/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
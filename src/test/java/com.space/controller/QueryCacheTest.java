@@ -0,0 +1,56 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class QueryCacheTest extends AbstractTest {
+
+    private TestsHelper testsHelper = new TestsHelper();
+
+    //test1
+    @Test
+    public void repeatedListIsServedFromCacheTest() throws Exception {
+        long hitsBefore = shipQueryCache.stats().hitCount();
+
+        String first = mockMvc.perform(get("/rest/ships?planet=ur&pageSize=4").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(get("/rest/ships?pageSize=4&planet=ur").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals("Повторный запрос GET /rest/ships не попал в кеш результатов.", hitsBefore + 1, shipQueryCache.stats().hitCount());
+        assertEquals("Ответ из кеша результатов отличается от ответа из БД.", first, second);
+    }
+
+    //test2
+    @Test
+    public void countAfterCreateAndDeleteIsFreshTest() throws Exception {
+        int allShips = testsHelper.getAllShips().size();
+        assertEquals("Не правильное количество до создания корабля.", allShips, count());
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        assertEquals("Кеш результатов вернул устаревшее количество после создания корабля.", allShips + 1, count());
+
+        mockMvc.perform(delete("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertEquals("Кеш результатов вернул устаревшее количество после удаления корабля.", allShips, count());
+    }
+
+    private int count() throws Exception {
+        return Integer.parseInt(mockMvc.perform(get("/rest/ships/count").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,94 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class RecomputeRatingsTest extends AbstractTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    //test1
+    @Test
+    public void recomputeRestoresRatingsTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        // рейтинги, изменённые в обход приложения, как после смены параметров рейтинга
+        jdbcTemplate.update("UPDATE ship SET rating = 0 WHERE id <= 5");
+
+        mockMvc.perform(post("/rest/ships/ratings/recompute").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitProgress();
+
+        assertEquals("Пересчёт должен завершиться успешно.", "DONE", progress.get("state").asText());
+        assertEquals("Неверное количество кораблей к пересчёту.", 40, progress.get("totalShips").asInt());
+        assertEquals("Пересчёт должен просмотреть все корабли.", 40, progress.get("scannedShips").asInt());
+        // 5 изменённых и Icarus I (id 7), у которого рейтинг в test.sql не совпадает с расчётным
+        assertEquals("Рейтинг должен измениться только у кораблей с неверным рейтингом.", 6, progress.get("updatedShips").asInt());
+        assertEquals("Неверный процент выполнения.", 100.0, progress.get("percent").asDouble());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1.1\""))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Корабль из кеша должен отдаваться с пересчитанным рейтингом.",
+                1.31, mapper.readTree(contentAsString).get("rating").asDouble());
+
+        mockMvc.perform(get("/rest/ships/6").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"6.0\""));
+    }
+
+    //test2
+    @Test
+    public void recomputeChangesOnlyWrongRatingsTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/ratings/recompute").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isAccepted());
+        JsonNode progress = awaitProgress();
+
+        assertEquals("Пересчёт должен завершиться успешно.", "DONE", progress.get("state").asText());
+        assertEquals("Неверный текущий год в параметрах пересчёта.", 3019, progress.get("currentYear").asInt());
+        // в test.sql неверный рейтинг только у Icarus I (id 7): 80 * 0.08 / (3019 - 2999 + 1) = 0.30, а не 0.27
+        assertEquals("Рейтинг должен измениться только у кораблей с неверным рейтингом.", 1, progress.get("updatedShips").asInt());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/7").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"7.1\""))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неверный пересчитанный рейтинг.", 0.3, mapper.readTree(contentAsString).get("rating").asDouble());
+    }
+
+    // Ход пересчёта после его завершения (GET опрашивается, пока состояние RUNNING).
+    private JsonNode awaitProgress() throws Exception {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (true) {
+            String contentAsString = mockMvc.perform(get("/rest/ships/ratings/recompute").accept(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode progress = mapper.readTree(contentAsString);
+            if (!"RUNNING".equals(progress.get("state").asText())) {
+                return progress;
+            }
+            assertTrue("Пересчёт рейтингов не завершился за 30 секунд.", System.currentTimeMillis() < deadline);
+            Thread.sleep(20);
+        }
+    }
+}
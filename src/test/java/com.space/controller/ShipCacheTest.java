@@ -0,0 +1,57 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipCacheTest extends AbstractTest {
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void repeatedGetIsServedFromCacheTest() throws Exception {
+        long hitsBefore = shipCache.stats().hitCount();
+
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+
+        assertEquals("Повторный запрос GET /rest/ships/{id} не попал в кеш.", hitsBefore + 1, shipCache.stats().hitCount());
+    }
+
+    //test2
+    @Test
+    public void getAfterUpdateReturnsUpdatedShipTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"Cached\"}"))
+                .andExpect(status().isOk());
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
+
+        assertEquals("После обновления GET /rest/ships/{id} вернул устаревший корабль из кеша.", "Cached", actual.name);
+    }
+
+    //test3
+    @Test
+    public void getAfterDeleteReturnsNotFoundTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8)).andExpect(status().isNotFound());
+    }
+}
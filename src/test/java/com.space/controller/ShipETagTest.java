@@ -0,0 +1,103 @@
+package com.space.controller;
+
+import com.space.controller.utils.TestsHelper;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipETagTest extends AbstractTest {
+
+    //test1
+    @Test
+    public void shipNotModifiedTest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String eTag = response.getHeader(HttpHeaders.ETAG);
+        assertEquals("Неверный ETag корабля.", "\"1.0\"", eTag);
+
+        MockHttpServletResponse notModified = mockMvc.perform(get("/rest/ships/1")
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse();
+        assertEquals("Ответ 304 не должен содержать тела.", "", notModified.getContentAsString());
+    }
+
+    //test2
+    @Test
+    public void shipModifiedAfterUpdateTest() throws Exception {
+        String eTag = mockMvc.perform(get("/rest/ships/2").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updatedETag = mockMvc.perform(post("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.11}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("После изменения версия корабля должна увеличиться.", "\"2.1\"", updatedETag);
+
+        MockHttpServletResponse response = mockMvc.perform(get("/rest/ships/2")
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertEquals("GET должен отдавать ETag новой версии.", updatedETag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue("В JSON корабля не должно быть версии.", !response.getContentAsString().contains("version"));
+    }
+
+    //test3
+    @Test
+    public void updateWithIfMatchTest() throws Exception {
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "\"3.0\"")
+                .content("{\"name\":\"First\"}"))
+                .andExpect(status().isOk());
+
+        // второй клиент тоже прочитал версию 0 и не видел первого изменения
+        mockMvc.perform(post("/rest/ships/3")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "\"3.0\"")
+                .content("{\"name\":\"Second\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        String content = mockMvc.perform(get("/rest/ships/3").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue("Изменение с устаревшей версией не должно применяться.", content.contains("\"First\""));
+    }
+
+    //test4
+    @Test
+    public void listNotModifiedUntilChangeTest() throws Exception {
+        String url = "/rest/ships?shipType=MILITARY&order=SPEED";
+        String eTag = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/rest/ships/count?shipType=MILITARY").accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,145 @@
+package com.space.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.controller.utils.ShipInfoTest;
+import com.space.controller.utils.TestsHelper;
+import com.space.model.ShipType;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ShipStatsTest extends AbstractTest {
+
+    private static final String[] GROUPS = {"NONE", "PLANET", "SHIP_TYPE", "USED", "YEAR"};
+
+    private TestsHelper testsHelper = new TestsHelper();
+    private ObjectMapper mapper = new ObjectMapper();
+
+    //test1
+    @Test
+    public void allShipsStatsTest() throws Exception {
+        List<ShipInfoTest> ships = testsHelper.getAllShips();
+        JsonNode group = stats("groupBy=NONE").get("groups").get(0);
+
+        assertEquals("Неверное количество кораблей.", (long) ships.size(), group.get("count").asLong());
+        assertEquals("Неверная минимальная скорость.",
+                ships.stream().mapToDouble(ship -> ship.speed).min().getAsDouble(), group.get("speed").get("min").asDouble());
+        assertEquals("Неверная максимальная скорость.",
+                ships.stream().mapToDouble(ship -> ship.speed).max().getAsDouble(), group.get("speed").get("max").asDouble());
+        assertEquals("Неверная сумма экипажей.",
+                (double) ships.stream().mapToInt(ship -> ship.crewSize).sum(), group.get("crewSize").get("sum").asDouble());
+        // медиана - ближайший ранг: 20-е из 40 значений по возрастанию
+        double[] ratings = ships.stream().mapToDouble(ship -> ship.rating).sorted().toArray();
+        assertEquals("Неверная медиана рейтинга.", ratings[ships.size() / 2 - 1], group.get("rating").get("p50").asDouble());
+    }
+
+    //test2
+    @Test
+    public void filteredStatsByUsedTest() throws Exception {
+        List<ShipInfoTest> military = testsHelper.getShipInfosByShipType(ShipType.MILITARY, testsHelper.getAllShips());
+        JsonNode groups = stats("groupBy=USED&shipType=MILITARY").get("groups");
+
+        assertEquals("Неверное количество групп.", 2, groups.size());
+        assertEquals("Группы должны идти по возрастанию ключа.", false, groups.get(0).get("key").asBoolean());
+        assertEquals("Неверное количество новых военных кораблей.",
+                military.stream().filter(ship -> !ship.isUsed).count(), groups.get(0).get("count").asLong());
+        assertEquals("Неверное количество использованных военных кораблей.",
+                military.stream().filter(ship -> ship.isUsed).count(), groups.get(1).get("count").asLong());
+    }
+
+    //test3
+    @Test
+    public void incrementalStatsSameAsDatabaseTest() throws Exception {
+        assertIncrementalSameAsDatabase();
+
+        mockMvc.perform(post("/rest/ships")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(TestsHelper.NORMAL_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/5")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"planet\":\"Pluto\",\"speed\":0.11}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/bulk/delete")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("[2, 3]"))
+                .andExpect(status().isOk());
+
+        assertIncrementalSameAsDatabase();
+        assertEquals("Неверное количество кораблей после изменений.",
+                (long) testsHelper.getAllShips().size() - 2, stats("groupBy=NONE").get("groups").get(0).get("count").asLong());
+    }
+
+    //test4
+    @Test
+    public void unroundedSpeedsFallIntoBucketsTest() throws Exception {
+        // скорость не округляется при записи: каждое значение различно, а корзин по 0.01 остаётся немного
+        for (int id = 1; id <= 10; id++) {
+            mockMvc.perform(post("/rest/ships/" + id)
+                    .contentType(MediaType.APPLICATION_JSON_UTF8)
+                    .accept(MediaType.APPLICATION_JSON_UTF8)
+                    .content("{\"speed\":0.01" + (10 + id) + "}"))
+                    .andExpect(status().isOk());
+        }
+
+        assertIncrementalSameAsDatabase();
+        JsonNode speed = stats("groupBy=NONE").get("groups").get(0).get("speed");
+        assertEquals("Минимальная скорость - значение её корзины.", 0.01, speed.get("min").asDouble());
+        assertEquals("Перцентиль скорости должен быть значением корзины.",
+                Math.round(speed.get("p50").asDouble() * 100) / 100.0, speed.get("p50").asDouble());
+    }
+
+    //test5
+    @Test
+    public void deleteMinShipSharingBucketTest() throws Exception {
+        // два самых медленных корабля в одной корзине 0.01; удаляется тот, у кого скорость меньше
+        mockMvc.perform(post("/rest/ships/1")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.0111}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/rest/ships/2")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"speed\":0.0149}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/rest/ships/1").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        assertIncrementalSameAsDatabase();
+        assertEquals("Минимальная скорость должна остаться в корзине оставшегося корабля.",
+                0.01, stats("groupBy=NONE").get("groups").get(0).get("speed").get("min").asDouble());
+
+        mockMvc.perform(delete("/rest/ships/2").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        assertIncrementalSameAsDatabase();
+    }
+
+    // без фильтров агрегаты берутся из памяти, а фильтр minCrewSize=1 (под него попадают все корабли) - считается в БД
+    private void assertIncrementalSameAsDatabase() throws Exception {
+        for (String group : GROUPS) {
+            assertEquals("Агрегаты из памяти отличаются от агрегатов из БД: " + group,
+                    stats("groupBy=" + group + "&minCrewSize=1"), stats("groupBy=" + group));
+        }
+    }
+
+    private JsonNode stats(String query) throws Exception {
+        String content = mockMvc.perform(get("/rest/ships/stats?" + query).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return mapper.readTree(content);
+    }
+}
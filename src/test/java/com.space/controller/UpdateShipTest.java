@@ -4,13 +4,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.space.controller.utils.ShipInfoTest;
 import com.space.controller.utils.TestsHelper;
 import com.space.model.ShipType;
+import com.space.controller.utils.QueryBudget;
 import org.junit.Test;
+import com.space.model.ShipView;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.ResultActions;
 
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.util.AssertionErrors.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class UpdateShipTest extends AbstractTest {
@@ -96,7 +101,8 @@ public class UpdateShipTest extends AbstractTest {
                 .contentType(MediaType.APPLICATION_JSON_UTF8)
                 .accept(MediaType.APPLICATION_JSON_UTF8)
                 .content(String.format(TestsHelper.NORMAL_JSON_WITH_ID, 8L)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(2));
 
         String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
         ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
@@ -114,7 +120,8 @@ public class UpdateShipTest extends AbstractTest {
                 .contentType(MediaType.APPLICATION_JSON_UTF8)
                 .accept(MediaType.APPLICATION_JSON_UTF8)
                 .content("{}"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(QueryBudget.atMost(1));
 
         String contentAsString = resultActions.andReturn().getResponse().getContentAsString();
         ShipInfoTest actual = mapper.readValue(contentAsString, ShipInfoTest.class);
@@ -188,4 +195,91 @@ public class UpdateShipTest extends AbstractTest {
 
         assertEquals("При запросе POST /rest/ships/{id} корабль должен обновляться и рейтинг пересчитываться", expected, actual);
     }
-}
\ No newline at end of file
+
+    //test12
+    @Test
+    public void updateCachedShipSingleStatementTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/14")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(String.format(TestsHelper.JSON_SKELETON, "TestName", "false", "0.5", "2500")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"14.1\""))
+                .andExpect(QueryBudget.atMost(1));
+        ShipInfoTest updated = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/14").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Корабль из кеша, изменённый одним UPDATE, должен сохраниться в БД.",
+                updated, mapper.readValue(contentAsString, ShipInfoTest.class));
+        assertEquals("Рейтинг должен пересчитываться из значений корабля в кеше.", 6.67, updated.rating);
+    }
+
+    //test13
+    @Test
+    public void updateStaleCachedShipTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/20").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        ShipView stale = shipCache.getIfPresent(20L);
+        mockMvc.perform(post("/rest/ships/20")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"crewSize\": 100}"))
+                .andExpect(status().isOk());
+        // запись кеша с прежней версией, как если бы её загрузили до изменения
+        shipCache.get(20L, key -> stale);
+
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/20")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"TestName\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"20.2\""))
+                .andExpect(QueryBudget.atMost(3));
+        ShipInfoTest actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+
+        assertEquals("Изменение, сделанное после загрузки корабля в кеш, не должно потеряться.", 100, actual.crewSize);
+        assertEquals("Неверное имя после изменения.", "TestName", actual.name);
+    }
+
+    //test14
+    @Test
+    public void updateStaleCachedShipWithoutChangesTest() throws Exception {
+        mockMvc.perform(get("/rest/ships/20").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk());
+        ShipView stale = shipCache.getIfPresent(20L);
+        mockMvc.perform(post("/rest/ships/20")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .content("{\"name\": \"TestName\"}"))
+                .andExpect(status().isOk());
+        shipCache.get(20L, key -> stale);
+        // изменение совпадает со значениями устаревшей записи кеша, но не с кораблём в БД
+        String content = "{\"name\": \"" + stale.getName() + "\"}";
+
+        mockMvc.perform(post("/rest/ships/20")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .header(HttpHeaders.IF_MATCH, "\"20.0\"")
+                .content(content))
+                .andExpect(status().isPreconditionFailed());
+
+        ResultActions resultActions = mockMvc.perform(post("/rest/ships/20")
+                .contentType(MediaType.APPLICATION_JSON_UTF8)
+                .accept(MediaType.APPLICATION_JSON_UTF8)
+                .content(content))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"20.2\""));
+        ShipInfoTest actual = mapper.readValue(resultActions.andReturn().getResponse().getContentAsString(), ShipInfoTest.class);
+        assertEquals("Имя должно быть записано в БД, а не взято из устаревшего кеша.", stale.getName(), actual.name);
+
+        String contentAsString = mockMvc.perform(get("/rest/ships/20").accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"20.2\""))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("Неверное имя в БД после изменения.", stale.getName(),
+                mapper.readValue(contentAsString, ShipInfoTest.class).name);
+    }
+}
@@ -0,0 +1,42 @@
+package com.space.controller.utils;
+
+/*
+ Бюджет SQL-выражений на запрос к контроллеру: проверяет список, который QueryLogInterceptor
+ кладёт в атрибут запроса. Если обработчик начнёт ходить в БД чаще, тест упадёт со списком выражений.
+     mockMvc.perform(get("/rest/ships/14")).andExpect(QueryBudget.atMost(1));
+ */
+
+import com.space.metrics.QueryLog;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class QueryBudget {
+
+    // как db.query-log.n-plus-one-threshold в cosmoport.properties
+    private static final int N_PLUS_ONE_THRESHOLD = 10;
+
+    private QueryBudget() {
+    }
+
+    // не больше statements SQL-выражений и никаких повторов, повторных чтений строки и N+1
+    public static ResultMatcher atMost(int statements) {
+        return result -> {
+            List<QueryLog.Statement> executed = executed(result.getRequest().getAttribute(QueryLog.STATEMENTS_ATTRIBUTE));
+            String log = executed.stream().map(QueryLog.Statement::toString).collect(Collectors.joining("\n"));
+            assertTrue("Выполнено " + executed.size() + " SQL при бюджете " + statements + ":\n" + log,
+                    executed.size() <= statements);
+            List<String> problems = QueryLog.problems(executed, N_PLUS_ONE_THRESHOLD);
+            assertTrue("Лишние обращения к БД: " + problems, problems.isEmpty());
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<QueryLog.Statement> executed(Object attribute) {
+        assertTrue("Нет журнала SQL запроса (db.query-log.enabled=false?).", attribute != null);
+        return (List<QueryLog.Statement>) attribute;
+    }
+}
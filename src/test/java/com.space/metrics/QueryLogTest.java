@@ -0,0 +1,65 @@
+package com.space.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class QueryLogTest {
+
+    private static final String FIND_BY_ID = "select entityship0_.id as id1_0_0_, entityship0_.name as name4_0_0_ "
+            + "from ship entityship0_ where entityship0_.id=?";
+    private static final String EXISTS_BY_ID = "select count(*) as col_0_0_ from ship entityship0_ where entityship0_.id=?";
+    private static final String UPDATE = "update ship set name=?, version=? where id=? and version=?";
+
+    //test1
+    @Test
+    public void duplicateAndRowReadTest() {
+        List<String> problems = QueryLog.problems(Arrays.asList(
+                statement(EXISTS_BY_ID, 14L),
+                statement(FIND_BY_ID, 14L),
+                statement(FIND_BY_ID, 14L)), 10);
+
+        assertEquals("Неверное число найденных проблем: " + problems, 2, problems.size());
+        assertTrue("Не найден повтор findById.", problems.get(0).startsWith("repeated (2 times)"));
+        assertTrue("Не найдено повторное чтение строки.", problems.get(1).startsWith("row ship#14 read again"));
+    }
+
+    //test2
+    @Test
+    public void nPlusOneTest() {
+        List<QueryLog.Statement> statements = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            statements.add(statement(FIND_BY_ID, id));
+        }
+
+        List<String> problems = QueryLog.problems(statements, 10);
+        assertEquals("Не найден N+1: " + problems, 1, problems.size());
+        assertTrue("Не найден N+1.", problems.get(0).startsWith("N+1 (10 times"));
+        assertEquals("9 чтений по id - ещё не N+1.", Collections.emptyList(), QueryLog.problems(statements.subList(0, 9), 10));
+    }
+
+    //test3
+    @Test
+    public void normalRequestTest() {
+        List<QueryLog.Statement> statements = new ArrayList<>();
+        statements.add(statement(FIND_BY_ID, 5L));
+        statements.add(statement(UPDATE, "Orion", 1L, 5L, 0L));
+        // пакеты с одинаковым текстом - не повторы
+        for (int i = 0; i < 20; i++) {
+            statements.add(new QueryLog.Statement("insert into ship values (?, ?)", Arrays.asList(i, "Orion"), 50, 0));
+        }
+
+        assertEquals("Чтение и обновление корабля не должны считаться лишними запросами.",
+                Collections.emptyList(), QueryLog.problems(statements, 10));
+    }
+
+    private static QueryLog.Statement statement(String sql, Object... parameters) {
+        return new QueryLog.Statement(sql, Arrays.asList(parameters), 0, 1000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.space.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.space.config.WebConfig;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Random;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipViewTest {
+
+    private ObjectMapper mapper = new WebConfig().objectMapper();
+
+    //test1
+    @Test
+    public void jsonMatchesEntityShipTest() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            EntityShip ship = new EntityShip();
+            ship.setId(random.nextLong() & Long.MAX_VALUE);
+            ship.setName("Ship \"" + i + "\"");
+            ship.setPlanet(random.nextBoolean() ? "Earth" : "Марс");
+            ship.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+            // из колонки DATE дата читается началом дня
+            ship.setProdDate(new Date(ShipView.startOfDay(26192246400000L + (long) (random.nextDouble() * 6_900_000_000_000L))));
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed((1 + random.nextInt(99)) / 100.0);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(random.nextInt(100_000) / 100.0);
+
+            assertJsonEquals(ship);
+        }
+    }
+
+    //test2
+    @Test
+    public void jsonMatchesEntityShipWithNullsTest() throws Exception {
+        assertJsonEquals(new EntityShip());
+
+        EntityShip ship = new EntityShip();
+        ship.setId(7L);
+        ship.setPlanet("Earth");
+        ship.setUsed(false);
+        ship.setCrewSize(0);
+        ship.setSpeed(0.0);
+        assertJsonEquals(ship);
+    }
+
+    //test3
+    @Test
+    public void toEntityRestoresAllFieldsTest() throws Exception {
+        EntityShip ship = new EntityShip();
+        ship.setId(1L);
+        ship.setName("Orion III");
+        ship.setPlanet("Mars");
+        ship.setShipType(ShipType.MERCHANT);
+        ship.setProdDate(new Date(ShipView.startOfDay(32199742800000L)));
+        ship.setUsed(true);
+        ship.setSpeed(0.82);
+        ship.setCrewSize(617);
+        ship.setRating(1.31);
+
+        assertEquals("ShipView.toEntity() не восстанавливает корабль.",
+                mapper.writeValueAsString(ship), mapper.writeValueAsString(ShipView.of(ship).toEntity()));
+    }
+
+    //test4
+    @Test
+    public void prodDateKeepsOnlyDayTest() throws Exception {
+        long midnight = ShipView.startOfDay(32199742800000L);
+        EntityShip stored = new EntityShip();
+        stored.setId(1L);
+        stored.setProdDate(new Date(midnight));
+        EntityShip created = new EntityShip();
+        created.setId(1L);
+        created.setProdDate(new Date(midnight + 13 * 60 * 60 * 1000L + 1));
+
+        assertEquals("Время суток в prodDate не должно попадать в ShipView (колонка DATE хранит только день).",
+                mapper.writeValueAsString(ShipView.of(stored)), mapper.writeValueAsString(ShipView.of(created)));
+    }
+
+    private void assertJsonEquals(EntityShip ship) throws Exception {
+        assertEquals("JSON ShipView отличается от JSON EntityShip для " + ship,
+                mapper.writeValueAsString(ship), mapper.writeValueAsString(ShipView.of(ship)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.space.repository;
+
+import com.space.controller.AbstractTest;
+import com.space.metrics.QueryLog;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ Проверяет планы запросов (EXPLAIN) для типичных комбинаций фильтров и сортировок GET /rest/ships и GET /rest/ships/count.
+ Проверяются не написанные вручную выражения, а те, что Hibernate действительно выполняет для этих запросов:
+ их вместе с параметрами записывает журнал SQL (QueryLog) в атрибут запроса, и каждое выражение
+ к таблице ship выполняется через EXPLAIN с теми же параметрами.
+ Если запрос начинает читать всю таблицу (tableScan) - значит, пропал или перестал подходить индекс
+ из migrations/V2__ship_filter_indexes.sql.
+ */
+public class QueryPlanTest extends AbstractTest {
+
+    // Параметры фильтров GET /rest/ships (условия строит ShipServiceImpl.selectByFilter)
+    private static final Map<String, String> FILTERS = new LinkedHashMap<>();
+    // Значения ShipOrder
+    private static final String[] ORDERS = {"ID", "SPEED", "DATE", "RATING"};
+
+    static {
+        FILTERS.put("shipType", "shipType=MILITARY");
+        FILTERS.put("shipType+isUsed", "shipType=MERCHANT&isUsed=true");
+        FILTERS.put("after+before", "after=" + millis("2900-01-01") + "&before=" + millis("2990-12-31"));
+        FILTERS.put("after", "after=" + millis("3000-01-01"));
+        FILTERS.put("minSpeed+maxSpeed", "minSpeed=0.3&maxSpeed=0.6");
+        FILTERS.put("maxSpeed", "maxSpeed=0.2");
+        FILTERS.put("minCrewSize+maxCrewSize", "minCrewSize=10&maxCrewSize=1000");
+        FILTERS.put("minRating+maxRating", "minRating=2&maxRating=4");
+        FILTERS.put("isUsed+minRating", "isUsed=true&minRating=2");
+        FILTERS.put("shipType+maxCrewSize", "shipType=MILITARY&maxCrewSize=400");
+    }
+
+    private JdbcTemplate jdbcTemplate;
+    private MockMvc mockMvc;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    public void setMockMvc(WebApplicationContext context) {
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    //test1
+    @Test
+    public void countQueriesUseIndexes() throws Exception {
+        List<String> fullScans = new ArrayList<>();
+        for (Map.Entry<String, String> filter : FILTERS.entrySet()) {
+            fullScans.addAll(fullScans("count[" + filter.getKey() + "]", "/rest/ships/count?" + filter.getValue()));
+        }
+        assertTrue("Запросы GET /rest/ships/count выполняются полным сканированием таблицы: " + fullScans, fullScans.isEmpty());
+    }
+
+    //test2
+    @Test
+    public void pageQueriesUseIndexes() throws Exception {
+        List<String> fullScans = new ArrayList<>();
+        for (String order : ORDERS) {
+            fullScans.addAll(fullScans("list[order=" + order + "]", "/rest/ships?order=" + order));
+            for (Map.Entry<String, String> filter : FILTERS.entrySet()) {
+                fullScans.addAll(fullScans("list[" + filter.getKey() + ", order=" + order + "]",
+                        "/rest/ships?" + filter.getValue() + "&order=" + order + "&pageNumber=1"));
+            }
+        }
+        assertTrue("Запросы GET /rest/ships выполняются полным сканированием таблицы: " + fullScans, fullScans.isEmpty());
+    }
+
+    // Выполняет запрос и возвращает выражения к таблице ship, план которых читает всю таблицу.
+    private List<String> fullScans(String name, String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url).accept(MediaType.APPLICATION_JSON_UTF8))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<QueryLog.Statement> statements = statements(result.getRequest().getAttribute(QueryLog.STATEMENTS_ATTRIBUTE));
+        assertTrue("Запрос " + url + " не обратился к БД (ответ из кеша?).", !statements.isEmpty());
+
+        List<String> fullScans = new ArrayList<>();
+        for (QueryLog.Statement statement : statements) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + statement.getSql(), String.class,
+                    statement.getParameters().toArray());
+            if (plan.contains("tableScan")) {
+                fullScans.add(name + ": " + statement.getSql());
+            }
+        }
+        return fullScans;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<QueryLog.Statement> statements(Object attribute) {
+        assertTrue("Нет журнала SQL запроса (db.query-log.enabled=false?).", attribute != null);
+        return (List<QueryLog.Statement>) attribute;
+    }
+
+    private static long millis(String date) {
+        return Date.valueOf(date).getTime();
+    }
+}
@@ -0,0 +1,111 @@
+package com.space.repository;
+
+import com.space.controller.AbstractTest;
+import com.space.service.ShipRating;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+/*
+ Рейтинг, который ShipRatingWriter считает выражением SQL, должен совпадать до бита с ShipRating
+ (тем же расчётом, что ShipServiceImpl.computeRating) на всей области значений: годы 2800..3019,
+ скорости 0.01..0.99 с шагом 0.01, новые и использованные корабли - с параметрами по умолчанию и с другими.
+ */
+public class ShipRatingWriterTest extends AbstractTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ShipRatingWriter shipRatingWriter;
+
+    @Autowired
+    public void setDataSource(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Autowired
+    public void setShipRatingWriter(ShipRatingWriter shipRatingWriter) {
+        this.shipRatingWriter = shipRatingWriter;
+    }
+
+    //test1
+    @Test
+    public void recomputeMatchesShipRatingOnWholeDomainTest() {
+        assertRecomputeMatches(new ShipRating(TimeZone.getDefault()));
+    }
+
+    //test2
+    @Test
+    public void recomputeMatchesShipRatingWithCustomParametersTest() {
+        assertRecomputeMatches(new ShipRating(TimeZone.getDefault(), 3119, 95.5, 0.3));
+    }
+
+    //test3
+    @Test
+    public void recomputeSkipsShipsAfterCurrentYearTest() {
+        ShipRating shipRating = new ShipRating(TimeZone.getDefault(), 3000, ShipRating.COEFFICIENT, ShipRating.USED_COEFFICIENT);
+        jdbcTemplate.update("UPDATE ship SET rating = NULL");
+        shipRatingWriter.recompute(shipRating, Long.MIN_VALUE, Long.MAX_VALUE);
+
+        Integer notRated = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ship WHERE rating IS NULL AND YEAR(prodDate) <= 3000", Integer.class);
+        Integer rated = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ship WHERE rating IS NOT NULL AND YEAR(prodDate) > 3000", Integer.class);
+        assertEquals("Корабли до текущего года должны получить рейтинг.", 0, notRated);
+        assertEquals("Корабли позже текущего года должны остаться без рейтинга.", 0, rated);
+    }
+
+    //test4
+    @Test
+    public void chunksFollowIdOrderTest() {
+        ShipRatingWriter.Chunk first = shipRatingWriter.nextChunk(Long.MIN_VALUE, 15);
+        ShipRatingWriter.Chunk second = shipRatingWriter.nextChunk(first.getLastId(), 15);
+        ShipRatingWriter.Chunk third = shipRatingWriter.nextChunk(second.getLastId(), 15);
+
+        assertEquals("Неверный размер первой пачки.", 15L, first.getRows());
+        assertEquals("Неверный последний id первой пачки.", 15L, first.getLastId());
+        assertEquals("Неверный последний id второй пачки.", 30L, second.getLastId());
+        assertEquals("Последняя пачка должна содержать оставшиеся корабли.", 10L, third.getRows());
+        assertEquals("После последней пачки кораблей быть не должно.", null, shipRatingWriter.nextChunk(third.getLastId(), 15));
+    }
+
+    // Заполняет таблицу всеми сочетаниями года, скорости и isUsed без рейтинга, пересчитывает рейтинги в БД
+    // и сравнивает каждый с ShipRating; повторный пересчёт не должен изменить ни одной строки.
+    private void assertRecomputeMatches(ShipRating shipRating) {
+        jdbcTemplate.update("DELETE FROM ship");
+        List<Object[]> rows = new ArrayList<>();
+        for (int year = ShipRating.MIN_YEAR; year <= ShipRating.CURRENT_YEAR; year++) {
+            for (int hundredths = 1; hundredths <= 99; hundredths++) {
+                for (boolean isUsed : new boolean[]{false, true}) {
+                    // первый и последний день года и дни между ними
+                    LocalDate prodDate = LocalDate.of(year, 1, 1).plusDays((hundredths * 37 + (isUsed ? 1 : 0)) % 365);
+                    rows.add(new Object[]{Date.valueOf(prodDate), isUsed, hundredths / 100.0});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ship (name, planet, shipType, prodDate, isUsed, speed, crewSize) "
+                + "VALUES ('Ship', 'Earth', 'MILITARY', ?, ?, ?, 100)", rows);
+
+        int updated = shipRatingWriter.recompute(shipRating, Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals("Рейтинг должен быть пересчитан у всех кораблей.", rows.size(), updated);
+
+        jdbcTemplate.query("SELECT prodDate, isUsed, speed, rating FROM ship", resultSet -> {
+            Date prodDate = resultSet.getDate(1);
+            boolean isUsed = resultSet.getBoolean(2);
+            double speed = resultSet.getDouble(3);
+            double expected = shipRating.rating(speed, isUsed, shipRating.yearOf(prodDate.getTime()));
+            assertEquals("Рейтинг из БД отличается от ShipRating: prodDate=" + prodDate + ", speed=" + speed + ", isUsed=" + isUsed,
+                    Double.doubleToLongBits(expected), Double.doubleToLongBits(resultSet.getDouble(4)));
+        });
+
+        assertEquals("Повторный пересчёт не должен изменять строки с верным рейтингом.",
+                0, shipRatingWriter.recompute(shipRating, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}
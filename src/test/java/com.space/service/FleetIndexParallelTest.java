@@ -0,0 +1,107 @@
+package com.space.service;
+
+import com.space.model.EntityShip;
+import com.space.model.ShipFilter;
+import com.space.model.ShipType;
+import com.space.model.ShipView;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class FleetIndexParallelTest {
+
+    private static final int SHIPS = 300_000;
+
+    private static FleetIndex serial;
+    private static FleetIndex parallel;
+
+    @BeforeClass
+    public static void loadFleet() {
+        Random random = new Random(17);
+        List<EntityShip> ships = new ArrayList<>(SHIPS);
+        for (int i = 0; i < SHIPS; i++) {
+            EntityShip ship = new EntityShip();
+            ship.setId((long) i + 1);
+            ship.setName("Ship-" + random.nextInt(1000));
+            ship.setPlanet("Planet-" + random.nextInt(50));
+            ship.setShipType(ShipType.values()[random.nextInt(ShipType.values().length)]);
+            ship.setProdDate(new Date(26192246400000L + (long) random.nextInt(80_000) * 86_400_000L));
+            ship.setUsed(random.nextBoolean());
+            ship.setSpeed((1 + random.nextInt(99)) / 100.0);
+            ship.setCrewSize(1 + random.nextInt(9999));
+            ship.setRating(random.nextInt(8000) / 100.0);
+            ships.add(ship);
+        }
+        serial = index(1);
+        parallel = index(4);
+        serial.load(ships);
+        parallel.load(ships);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        serial.destroy();
+        parallel.destroy();
+    }
+
+    //test1
+    @Test
+    public void parallelScanSameAsSerialTest() {
+        ShipFilter speed = new ShipFilter();
+        speed.setMinSpeed(0.3);
+        speed.setMaxSpeed(0.7);
+
+        ShipFilter text = new ShipFilter();
+        text.setName("7");
+        text.setIsUsed(false);
+
+        ShipFilter rare = new ShipFilter();
+        rare.setShipType(ShipType.MILITARY);
+        rare.setMinCrewSize(9990);
+
+        for (ShipFilter filter : new ShipFilter[]{new ShipFilter(), speed, text, rare}) {
+            assertEquals("Параллельный подсчёт отличается от последовательного.", serial.count(filter), parallel.count(filter));
+            for (String order : new String[]{"id", "speed", "prodDate", "rating"}) {
+                for (int pageNumber : new int[]{0, 3, 1000}) {
+                    PageRequest pageable = PageRequest.of(pageNumber, 20, Sort.by(order));
+                    Page<ShipView> expected = serial.find(filter, pageable);
+                    Page<ShipView> actual = parallel.find(filter, pageable);
+                    assertEquals("Параллельная страница отличается от последовательной: " + pageable, ids(expected), ids(actual));
+                    assertEquals("Параллельное общее количество отличается от последовательного.",
+                            expected.getTotalElements(), actual.getTotalElements());
+                }
+            }
+        }
+    }
+
+    private static FleetIndex index(int parallelism) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("ship.fleet-index.enabled", "true")
+                .withProperty("ship.export.fetch-size", "1000")
+                .withProperty("ship.fleet-index.parallelism", String.valueOf(parallelism))
+                .withProperty("ship.fleet-index.parallel-threshold", "0")
+                .withProperty("ship.search.ngram-token-size", "2");
+        // индекс загружается из списка, БД нужна только ShipSearchSupport, чтобы узнать, как в ней работает LIKE
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:fleet-index");
+        ShipSearchSupport shipSearchSupport = new ShipSearchSupport(dataSource, environment);
+        return new FleetIndex(null, null, shipSearchSupport, environment);
+    }
+
+    private static List<Long> ids(Page<ShipView> page) {
+        return page.getContent().stream().map(ShipView::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,36 @@
+package com.space.service;
+
+/*
+ Прежняя реализация расчёта рейтинга и проверки года выпуска (GregorianCalendar + BigDecimal).
+ Эталон для ShipRatingTest и база для сравнения в ShipRatingBenchmark.
+ */
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+public final class LegacyShipRating {
+
+    private LegacyShipRating() {
+    }
+
+    public static int yearOf(long epochMillis, TimeZone timeZone) {
+        Calendar calendar = new GregorianCalendar(timeZone);
+        calendar.setTime(new Date(epochMillis));
+        return calendar.get(Calendar.YEAR);
+    }
+
+    public static boolean isValidProdDate(long epochMillis, TimeZone timeZone) {
+        int year = yearOf(epochMillis, timeZone);
+        return year >= 2800 && year <= 3019;
+    }
+
+    public static double rating(double speed, boolean isUsed, int prodYear) {
+        double k = isUsed ? 0.5 : 1;
+        BigDecimal rating = BigDecimal.valueOf((80 * speed * k) / (3019 - prodYear + 1)).setScale(2, RoundingMode.HALF_UP);
+        return rating.doubleValue();
+    }
+}
@@ -0,0 +1,109 @@
+package com.space.service;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipRatingTest {
+
+    private static final String[] TIME_ZONES = {"UTC", "Europe/Moscow", "America/New_York", "Pacific/Kiritimati", "Asia/Kathmandu", "America/St_Johns"};
+
+    //test1
+    @Test
+    public void ratingMatchesLegacyOnWholeDomainTest() {
+        ShipRating shipRating = new ShipRating(TimeZone.getTimeZone("UTC"));
+        for (int year = ShipRating.MIN_YEAR; year <= ShipRating.CURRENT_YEAR; year++) {
+            for (int hundredths = 1; hundredths <= 99; hundredths++) {
+                double speed = hundredths / 100.0;
+                for (boolean isUsed : new boolean[]{false, true}) {
+                    assertEquals("Рейтинг отличается от прежнего расчёта: year=" + year + ", speed=" + speed + ", isUsed=" + isUsed,
+                            Double.doubleToLongBits(LegacyShipRating.rating(speed, isUsed, year)),
+                            Double.doubleToLongBits(shipRating.rating(speed, isUsed, year)));
+                }
+            }
+        }
+    }
+
+    //test2
+    @Test
+    public void ratingMatchesLegacyOnRandomSpeedsTest() {
+        ShipRating shipRating = new ShipRating(TimeZone.getTimeZone("UTC"));
+        Random random = new Random(3019);
+        for (int i = 0; i < 1_000_000; i++) {
+            double speed = 0.01 + random.nextDouble() * 0.98;
+            int year = ShipRating.MIN_YEAR + random.nextInt(ShipRating.CURRENT_YEAR - ShipRating.MIN_YEAR + 1);
+            boolean isUsed = random.nextBoolean();
+            assertEquals("Рейтинг отличается от прежнего расчёта: year=" + year + ", speed=" + speed + ", isUsed=" + isUsed,
+                    Double.doubleToLongBits(LegacyShipRating.rating(speed, isUsed, year)),
+                    Double.doubleToLongBits(shipRating.rating(speed, isUsed, year)));
+        }
+    }
+
+    //test3
+    @Test
+    public void roundHalfUpMatchesBigDecimalTest() {
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            // половины сотых и соседние с ними double - самые трудные для округления значения
+            double tie = (2 * random.nextInt(100_000) + 1) / 200.0;
+            double[] values = {random.nextDouble() * 100, tie, Math.nextUp(tie), Math.nextDown(tie)};
+            for (double value : values) {
+                assertEquals("Округление до сотых отличается от BigDecimal для " + value,
+                        BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue(),
+                        ShipRating.roundHalfUp2(value));
+            }
+        }
+    }
+
+    //test4
+    @Test
+    public void yearMatchesGregorianCalendarTest() {
+        for (String zone : TIME_ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            ShipRating shipRating = new ShipRating(timeZone);
+
+            // границы каждого года вокруг допустимого диапазона
+            for (int year = ShipRating.MIN_YEAR - 1; year <= ShipRating.CURRENT_YEAR + 1; year++) {
+                long start = new GregorianCalendar(year, Calendar.JANUARY, 1).getTimeInMillis();
+                Calendar calendar = new GregorianCalendar(timeZone);
+                calendar.clear();
+                calendar.set(year, Calendar.JANUARY, 1);
+                long zoneStart = calendar.getTimeInMillis();
+                for (long millis : new long[]{start - 1, start, start + 1, zoneStart - 1, zoneStart, zoneStart + 1}) {
+                    assertYear(shipRating, timeZone, millis);
+                }
+            }
+
+            Random random = new Random(zone.hashCode());
+            long max = new GregorianCalendar(3100, Calendar.JANUARY, 1).getTimeInMillis();
+            for (int i = 0; i < 200_000; i++) {
+                assertYear(shipRating, timeZone, (long) (random.nextDouble() * max));
+            }
+            assertYear(shipRating, timeZone, 0);
+            assertYear(shipRating, timeZone, Long.MAX_VALUE);
+        }
+    }
+
+    //test5
+    @Test
+    public void negativeProdDateIsInvalidTest() {
+        ShipRating shipRating = new ShipRating(TimeZone.getTimeZone("UTC"));
+        assertEquals("Отрицательная дата выпуска должна быть недопустимой.", false, shipRating.isValidProdDate(-1));
+        assertEquals("Отрицательная дата выпуска должна быть недопустимой.", false, shipRating.isValidProdDate(-32998274577071L));
+        assertEquals("Отрицательная дата выпуска должна быть недопустимой.", false, shipRating.isValidProdDate(Long.MIN_VALUE));
+    }
+
+    private void assertYear(ShipRating shipRating, TimeZone timeZone, long millis) {
+        assertEquals("Год отличается от GregorianCalendar: zone=" + timeZone.getID() + ", millis=" + millis,
+                LegacyShipRating.yearOf(millis, timeZone), shipRating.yearOf(millis));
+        assertEquals("Проверка даты выпуска отличается от прежней: zone=" + timeZone.getID() + ", millis=" + millis,
+                LegacyShipRating.isValidProdDate(millis, timeZone), shipRating.isValidProdDate(millis));
+    }
+}
@@ -0,0 +1,43 @@
+package com.space.service;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ShipSearchSupportTest {
+
+    private final ShipSearchSupport support = new ShipSearchSupport(Collections.singleton("name"), 2);
+
+    //test1
+    @Test
+    public void ngramIndexForLongRunsTest() {
+        assertEquals("Текст из одного куска длиной n должен искаться через индекс.",
+                true, support.canUseNgramIndex("name", "Or"));
+        assertEquals("Все куски не короче n - индекс.", true, support.canUseNgramIndex("name", "Orion II"));
+        assertEquals("Разделители по краям не мешают индексу.", true, support.canUseNgramIndex("name", " Orion-"));
+    }
+
+    //test2
+    @Test
+    public void likeForShortRunsTest() {
+        assertEquals("Короткий кусок после пробела - только LIKE.", false, support.canUseNgramIndex("name", "Orion I"));
+        assertEquals("Короткий кусок после знака препинания - только LIKE.",
+                false, support.canUseNgramIndex("name", "Orion-7"));
+        assertEquals("Текст из одних разделителей - только LIKE.", false, support.canUseNgramIndex("name", " - "));
+        assertEquals("Текст короче n - только LIKE.", false, support.canUseNgramIndex("name", "O"));
+    }
+
+    //test3
+    @Test
+    public void likeForColumnWithoutIndexTest() {
+        assertEquals("Колонка без FULLTEXT-индекса - только LIKE.", false, support.canUseNgramIndex("planet", "Orion"));
+    }
+
+    //test4
+    @Test
+    public void phraseKeepsRunsApartTest() {
+        assertEquals("Кавычка в тексте должна стать разделителем.", "\"ab cd\"", support.toPhrase("ab\"cd"));
+    }
+}
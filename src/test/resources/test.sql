@@ -14,6 +14,16 @@ CREATE TABLE ship
     PRIMARY KEY (id)
 );
 
+-- индексы под фильтры и сортировки GET /rest/ships (см. migrations/V2__ship_filter_indexes.sql)
+CREATE INDEX ship_type_used_idx ON ship (shipType, isUsed, prodDate);
+CREATE INDEX ship_prod_date_idx ON ship (prodDate, id);
+CREATE INDEX ship_speed_idx ON ship (speed, id);
+CREATE INDEX ship_rating_idx ON ship (rating, id);
+CREATE INDEX ship_crew_size_idx ON ship (crewSize, id);
+
+-- версия корабля для оптимистической блокировки и ETag (см. migrations/V4__ship_version.sql)
+ALTER TABLE ship ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
 INSERT INTO ship(name, planet, shipType, prodDate, isUsed, speed, crewSize, rating)
 VALUES ('Orion III', 'Mars', 'MERCHANT', '2995-01-01', true, 0.82, 617, 1.31)
      , ('Daedalus', 'Jupiter', 'MERCHANT', '3001-01-01', true, 0.94, 1619, 1.98)